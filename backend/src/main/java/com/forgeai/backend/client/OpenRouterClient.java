@@ -2,9 +2,8 @@ package com.forgeai.backend.client;
 
 import com.forgeai.backend.dto.ai.OpenRouterRequest;
 import com.forgeai.backend.dto.ai.OpenRouterResponse;
+import com.forgeai.backend.dto.ai.Prompt;
 import com.forgeai.backend.config.OpenRouterProperties;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
@@ -12,46 +11,49 @@ import org.springframework.web.client.RestTemplate;
 @Component
 public class OpenRouterClient {
 
-    private static final Logger logger = LoggerFactory.getLogger(OpenRouterClient.class);
     private final RestTemplate restTemplate;
     private final OpenRouterProperties properties;
+    private final UsageRecorder usageRecorder;
 
-    public OpenRouterClient(RestTemplate restTemplate, OpenRouterProperties properties) {
+    public OpenRouterClient(RestTemplate restTemplate, OpenRouterProperties properties, UsageRecorder usageRecorder) {
         this.restTemplate = restTemplate;
         this.properties = properties;
+        this.usageRecorder = usageRecorder;
     }
 
-    public String generate(String prompt) {
+    /** Blocking completion; {@code usageCollector} may be null. */
+    public String generate(Prompt prompt, OpenRouterOperation operation, String model,
+            UsageCollector usageCollector) {
         String apiKey = properties.getKey();
         String apiUrl = properties.getUrl();
-        logger.error("USING KEY PREFIX = {}", apiKey.substring(0, 10));
 
-        if (apiKey == null || apiKey.isBlank()) {
-            throw new RuntimeException("OpenRouter API key is not configured");
-        }
-        if (apiUrl == null || apiUrl.isBlank()) {
-            throw new RuntimeException("OpenRouter API URL is not configured");
-        }
+        OpenRouterSupport.validateConfiguration(apiKey, apiUrl);
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-        headers.add("HTTP-Referer", "http://localhost");
-        headers.add("X-Title", "ForgeAI");
+        OpenRouterSupport.applyHeaders(headers, apiKey);
 
-        OpenRouterRequest request = OpenRouterRequest.defaultRequest(prompt);
+        OpenRouterRequest request = OpenRouterRequest.defaultRequest(prompt, model,
+                properties.isPromptCacheControl());
         HttpEntity<OpenRouterRequest> entity = new HttpEntity<>(request, headers);
 
-        ResponseEntity<OpenRouterResponse> response = restTemplate.postForEntity(
-                apiUrl,
-                entity,
-                OpenRouterResponse.class);
-
-        OpenRouterResponse body = response.getBody();
-        if (body != null && body.choices() != null && !body.choices().isEmpty()) {
-            return body.choices().get(0).message().content();
+        UsageRecorder.Call call = usageRecorder.start(operation, request.model(), usageCollector);
+        try {
+            ResponseEntity<OpenRouterResponse> response = restTemplate.postForEntity(
+                    apiUrl,
+                    entity,
+                    OpenRouterResponse.class);
+
+            OpenRouterResponse body = response.getBody();
+            if (body != null) {
+                call.served(body.model(), body.usage());
+            }
+            if (body != null && body.choices() != null && !body.choices().isEmpty()) {
+                return body.choices().get(0).message().content();
+            }
+
+            throw new RuntimeException("Empty or invalid response from OpenRouter");
+        } finally {
+            usageRecorder.finish(call);
         }
-
-        throw new RuntimeException("Empty or invalid response from OpenRouter");
     }
 }
@@ -0,0 +1,6 @@
+package com.forgeai.backend.client;
+
+public enum OpenRouterOperation {
+    GENERATE,
+    EDIT
+}
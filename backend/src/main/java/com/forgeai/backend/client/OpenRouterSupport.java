@@ -0,0 +1,26 @@
+package com.forgeai.backend.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+final class OpenRouterSupport {
+
+    private OpenRouterSupport() {
+    }
+
+    static void validateConfiguration(String apiKey, String apiUrl) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new RuntimeException("OpenRouter API key is not configured");
+        }
+        if (apiUrl == null || apiUrl.isBlank()) {
+            throw new RuntimeException("OpenRouter API URL is not configured");
+        }
+    }
+
+    static void applyHeaders(HttpHeaders headers, String apiKey) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(apiKey);
+        headers.add("HTTP-Referer", "http://localhost");
+        headers.add("X-Title", "ForgeAI");
+    }
+}
@@ -0,0 +1,168 @@
+package com.forgeai.backend.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forgeai.backend.config.OpenRouterProperties;
+import com.forgeai.backend.dto.ai.OpenRouterRequest;
+import com.forgeai.backend.dto.ai.OpenRouterResponse;
+import com.forgeai.backend.dto.ai.OpenRouterStreamChunk;
+import com.forgeai.backend.dto.ai.Prompt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking OpenRouter client on the pooled Reactor Netty connector, so an
+ * in-flight completion holds a pooled connection rather than a thread.
+ */
+@Component
+public class ReactiveOpenRouterClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveOpenRouterClient.class);
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE = new ParameterizedTypeReference<>() {
+    };
+    private static final String STREAM_DONE = "[DONE]";
+
+    private final WebClient webClient;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final OpenRouterProperties properties;
+    private final UsageRecorder usageRecorder;
+
+    public ReactiveOpenRouterClient(WebClient openRouterWebClient, HttpClient openRouterHttpClient,
+            ObjectMapper objectMapper, OpenRouterProperties properties, UsageRecorder usageRecorder) {
+        this.webClient = openRouterWebClient;
+        this.httpClient = openRouterHttpClient;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.usageRecorder = usageRecorder;
+    }
+
+    public Mono<String> generate(Prompt prompt, OpenRouterOperation operation, String model) {
+        String apiKey = properties.getKey();
+        String apiUrl = properties.getUrl();
+        Duration timeout = properties.getTimeouts().forOperation(operation);
+
+        return Mono.deferContextual(context -> {
+            OpenRouterSupport.validateConfiguration(apiKey, apiUrl);
+
+            OpenRouterRequest body = OpenRouterRequest.defaultRequest(prompt, model,
+                    properties.isPromptCacheControl());
+            UsageRecorder.Call call = usageRecorder.start(operation, body.model(),
+                    UsageCollector.from(context).orElse(null));
+            return webClient.post()
+                    .uri(apiUrl)
+                    .headers(headers -> OpenRouterSupport.applyHeaders(headers, apiKey))
+                    .httpRequest(request -> request.<HttpClientRequest>getNativeRequest().responseTimeout(timeout))
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToMono(OpenRouterResponse.class)
+                    .map(response -> {
+                        call.served(response.model(), response.usage());
+                        if (response.choices() != null && !response.choices().isEmpty()) {
+                            return response.choices().get(0).message().content();
+                        }
+                        throw new RuntimeException("Empty or invalid response from OpenRouter");
+                    })
+                    .doFinally(signal -> usageRecorder.finish(call));
+        });
+    }
+
+    /**
+     * Requests the completion with {@code stream: true} and emits the content
+     * deltas as they arrive. The operation timeout applies between chunks.
+     */
+    public Flux<String> stream(Prompt prompt, OpenRouterOperation operation, String model) {
+        String apiKey = properties.getKey();
+        String apiUrl = properties.getUrl();
+        Duration timeout = properties.getTimeouts().forOperation(operation);
+
+        return Flux.deferContextual(context -> {
+            OpenRouterSupport.validateConfiguration(apiKey, apiUrl);
+
+            OpenRouterRequest body = OpenRouterRequest.streamingRequest(prompt, model,
+                    properties.isPromptCacheControl());
+            UsageRecorder.Call call = usageRecorder.start(operation, body.model(),
+                    UsageCollector.from(context).orElse(null));
+            return webClient.post()
+                    .uri(apiUrl)
+                    .headers(headers -> OpenRouterSupport.applyHeaders(headers, apiKey))
+                    .httpRequest(request -> request.<HttpClientRequest>getNativeRequest().responseTimeout(timeout))
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToFlux(SSE_TYPE)
+                    // OpenRouter sends keep-alive comments without data
+                    .mapNotNull(ServerSentEvent::data)
+                    .takeWhile(data -> !STREAM_DONE.equals(data.trim()))
+                    .map(this::readChunk)
+                    // Usage arrives with the final chunk
+                    .doOnNext(chunk -> call.served(chunk.model(), chunk.usage()))
+                    .mapNotNull(this::extractContent)
+                    .doOnNext(content -> {
+                        if (!content.isEmpty()) {
+                            call.firstToken();
+                        }
+                    })
+                    .timeout(timeout)
+                    .doFinally(signal -> usageRecorder.finish(call));
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int connections = properties.getPool().getWarmupConnections();
+        String apiUrl = properties.getUrl();
+        if (properties.getTransport() != OpenRouterProperties.Transport.WEB_CLIENT || connections <= 0
+                || apiUrl == null || apiUrl.isBlank()) {
+            return;
+        }
+
+        // Load the event loop and resolver, then open pooled connections so the
+        // first generations skip DNS and TLS setup
+        httpClient.warmup()
+                .thenMany(Flux.range(0, connections)
+                        .flatMap(i -> webClient.head()
+                                .uri(apiUrl)
+                                .exchangeToMono(ClientResponse::releaseBody)
+                                .timeout(properties.getConnectTimeout())
+                                .onErrorResume(e -> {
+                                    logger.warn("OpenRouter connection warm-up failed: {}", e.getMessage());
+                                    return Mono.empty();
+                                })))
+                .subscribe(null,
+                        e -> logger.warn("OpenRouter client warm-up failed: {}", e.getMessage()),
+                        () -> logger.info("OpenRouter client warmed up with {} connection(s)", connections));
+    }
+
+    private OpenRouterStreamChunk readChunk(String data) {
+        try {
+            return objectMapper.readValue(data, OpenRouterStreamChunk.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid stream chunk from OpenRouter", e);
+        }
+    }
+
+    private String extractContent(OpenRouterStreamChunk chunk) {
+        if (chunk.error() != null) {
+            throw new RuntimeException("OpenRouter stream error: " + chunk.error().message());
+        }
+        if (chunk.choices() == null || chunk.choices().isEmpty() || chunk.choices().get(0).delta() == null) {
+            return null;
+        }
+        return chunk.choices().get(0).delta().content();
+    }
+}
@@ -0,0 +1,37 @@
+package com.forgeai.backend.client;
+
+import com.forgeai.backend.dto.GenerationUsage;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Gathers the usage of every upstream call made for one generation. Attach it
+ * to the Reactor context of the pipeline; the clients add to whichever
+ * collector they find there.
+ */
+public class UsageCollector {
+
+    private static final Object KEY = UsageCollector.class;
+
+    private final List<GenerationUsage> calls = new CopyOnWriteArrayList<>();
+
+    public Context attach(Context context) {
+        return context.put(KEY, this);
+    }
+
+    public List<GenerationUsage> calls() {
+        return List.copyOf(calls);
+    }
+
+    public void add(GenerationUsage usage) {
+        calls.add(usage);
+    }
+
+    public static Optional<UsageCollector> from(ContextView context) {
+        return context.getOrEmpty(KEY);
+    }
+}
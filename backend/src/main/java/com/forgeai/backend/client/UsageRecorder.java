@@ -0,0 +1,197 @@
+package com.forgeai.backend.client;
+
+import com.forgeai.backend.dto.GenerationUsage;
+import com.forgeai.backend.dto.UsageReportResponse;
+import com.forgeai.backend.dto.ai.OpenRouterUsage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records each completion's token usage, latency, time to first token and the
+ * model that served it. Prompt tokens are split into cached and uncached so
+ * prompt-cache hit rates are visible. Totals are kept per model and endpoint
+ * since startup, along with the most recent calls.
+ */
+@Component
+public class UsageRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageRecorder.class);
+    private static final int RECENT_CALLS = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final Instant since = Instant.now();
+    private final Map<TotalsKey, Totals> totals = new ConcurrentHashMap<>();
+    private final Deque<GenerationUsage> recent = new ArrayDeque<>();
+
+    public UsageRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Starts timing a call; {@code collector} may be null. */
+    Call start(OpenRouterOperation operation, String requestedModel, UsageCollector collector) {
+        return new Call(operation, requestedModel, collector);
+    }
+
+    /** Records the call once, whether it completed, failed or was cancelled. */
+    void finish(Call call) {
+        if (!call.finished.compareAndSet(false, true)) {
+            return;
+        }
+
+        long latencyNanos = System.nanoTime() - call.startNanos;
+        Long firstTokenNanos = call.firstTokenNanos == 0 ? null : call.firstTokenNanos - call.startNanos;
+        String endpoint = call.operation.name().toLowerCase();
+        String model = call.model != null ? call.model : call.requestedModel;
+        OpenRouterUsage usage = call.usage;
+
+        GenerationUsage record = new GenerationUsage(
+                endpoint,
+                call.requestedModel,
+                call.model,
+                usage == null ? null : usage.promptTokens(),
+                usage == null ? null : usage.cachedPromptTokens(),
+                usage == null ? null : usage.completionTokens(),
+                TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                firstTokenNanos == null ? null : TimeUnit.NANOSECONDS.toMillis(firstTokenNanos));
+        if (call.collector != null) {
+            call.collector.add(record);
+        }
+
+        Timer.builder("forgeai.upstream.latency").tag("operation", endpoint).tag("model", model)
+                .register(meterRegistry).record(latencyNanos, TimeUnit.NANOSECONDS);
+        if (firstTokenNanos != null) {
+            Timer.builder("forgeai.upstream.ttft").tag("operation", endpoint).tag("model", model)
+                    .register(meterRegistry).record(firstTokenNanos, TimeUnit.NANOSECONDS);
+        }
+        totals.computeIfAbsent(new TotalsKey(model, endpoint), key -> new Totals())
+                .add(usage, latencyNanos, firstTokenNanos);
+        synchronized (recent) {
+            recent.addFirst(record);
+            if (recent.size() > RECENT_CALLS) {
+                recent.removeLast();
+            }
+        }
+
+        if (usage == null) {
+            logger.info("OpenRouter {} call to {} ended after {} ms without usage", endpoint, model,
+                    record.latencyMs());
+            return;
+        }
+
+        int cached = usage.cachedPromptTokens();
+        int uncached = usage.uncachedPromptTokens();
+        int completion = usage.completionTokens() == null ? 0 : usage.completionTokens();
+
+        meterRegistry.counter("forgeai.upstream.tokens", "operation", endpoint, "model", model, "type",
+                "prompt-cached").increment(cached);
+        meterRegistry.counter("forgeai.upstream.tokens", "operation", endpoint, "model", model, "type",
+                "prompt-uncached").increment(uncached);
+        meterRegistry.counter("forgeai.upstream.tokens", "operation", endpoint, "model", model, "type",
+                "completion").increment(completion);
+
+        logger.info("OpenRouter {} usage on {}: {} cached + {} uncached prompt tokens, {} completion tokens, "
+                + "{} ms (first token {} ms)", endpoint, model, cached, uncached, completion, record.latencyMs(),
+                record.timeToFirstTokenMs());
+    }
+
+    public UsageReportResponse report() {
+        List<UsageReportResponse.Entry> entries = totals.entrySet().stream()
+                .map(entry -> entry.getValue().toEntry(entry.getKey()))
+                .sorted(Comparator.comparing(UsageReportResponse.Entry::model)
+                        .thenComparing(UsageReportResponse.Entry::endpoint))
+                .toList();
+        List<GenerationUsage> recentCalls;
+        synchronized (recent) {
+            recentCalls = List.copyOf(recent);
+        }
+        return new UsageReportResponse(since, entries, recentCalls);
+    }
+
+    /** State of one upstream call, filled in by the client as the response arrives. */
+    static final class Call {
+        private final OpenRouterOperation operation;
+        private final String requestedModel;
+        private final UsageCollector collector;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile long firstTokenNanos;
+        private volatile String model;
+        private volatile OpenRouterUsage usage;
+
+        private Call(OpenRouterOperation operation, String requestedModel, UsageCollector collector) {
+            this.operation = operation;
+            this.requestedModel = requestedModel;
+            this.collector = collector;
+        }
+
+        void firstToken() {
+            if (firstTokenNanos == 0) {
+                firstTokenNanos = System.nanoTime();
+            }
+        }
+
+        void served(String model, OpenRouterUsage usage) {
+            if (model != null) {
+                this.model = model;
+            }
+            if (usage != null) {
+                this.usage = usage;
+            }
+        }
+    }
+
+    private record TotalsKey(String model, String endpoint) {
+    }
+
+    private static final class Totals {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder cachedPromptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAdder firstTokenNanos = new LongAdder();
+        private final LongAdder firstTokenCalls = new LongAdder();
+
+        void add(OpenRouterUsage usage, long latency, Long firstToken) {
+            calls.increment();
+            latencyNanos.add(latency);
+            if (firstToken != null) {
+                firstTokenNanos.add(firstToken);
+                firstTokenCalls.increment();
+            }
+            if (usage != null) {
+                promptTokens.add(usage.promptTokens() == null ? 0 : usage.promptTokens());
+                cachedPromptTokens.add(usage.cachedPromptTokens());
+                completionTokens.add(usage.completionTokens() == null ? 0 : usage.completionTokens());
+            }
+        }
+
+        UsageReportResponse.Entry toEntry(TotalsKey key) {
+            long callCount = calls.sum();
+            long firstTokenCount = firstTokenCalls.sum();
+            return new UsageReportResponse.Entry(
+                    key.model(),
+                    key.endpoint(),
+                    callCount,
+                    promptTokens.sum(),
+                    cachedPromptTokens.sum(),
+                    completionTokens.sum(),
+                    callCount == 0 ? 0 : latencyNanos.sum() / 1e6 / callCount,
+                    firstTokenCount == 0 ? null : firstTokenNanos.sum() / 1e6 / firstTokenCount);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.forgeai.backend.config;
+
+import com.forgeai.backend.exception.AdminAuthenticationException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Requires {@code Authorization: Bearer <forgeai.admin.token>} on the admin
+ * API, which can change rate limits and trigger storage work.
+ */
+@Component
+public class AdminAuthInterceptor implements HandlerInterceptor {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AdminProperties properties;
+
+    public AdminAuthInterceptor(AdminProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String token = properties.getToken();
+        if (token == null || token.isBlank()) {
+            throw new AdminAuthenticationException("Admin API is disabled; set forgeai.admin.token to enable it");
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                || !MessageDigest.isEqual(header.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8),
+                        token.getBytes(StandardCharsets.UTF_8))) {
+            throw new AdminAuthenticationException("Missing or invalid admin token");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.admin")
+public class AdminProperties {
+    /** Bearer token required by /api/admin; the admin API is closed while it is blank */
+    private String token = "";
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
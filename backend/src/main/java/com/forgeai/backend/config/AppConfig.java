@@ -1,13 +1,26 @@
 package com.forgeai.backend.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
+import java.util.concurrent.Executors;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     @Bean
@@ -17,4 +30,53 @@ public class AppConfig {
                 .readTimeout(Duration.ofSeconds(60))
                 .build();
     }
+
+    /**
+     * Scheduler for blocking work (RestTemplate calls, storage, zipping). Uses a
+     * virtual thread per task when spring.threads.virtual.enabled is set.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Schedulers.fromExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("forgeai-blocking-", 0).factory()),
+                    "forgeai-blocking");
+        }
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "forgeai-blocking");
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openRouterConnectionProvider(OpenRouterProperties properties) {
+        OpenRouterProperties.Pool pool = properties.getPool();
+        return ConnectionProvider.builder("openrouter")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .build();
+    }
+
+    @Bean
+    public HttpClient openRouterHttpClient(ConnectionProvider openRouterConnectionProvider,
+            OpenRouterProperties properties) {
+        HttpClient httpClient = HttpClient.create(openRouterConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true);
+        if (properties.isHttp2()) {
+            // Negotiated through ALPN on https, plain http stays on HTTP/1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+
+    @Bean
+    public WebClient openRouterWebClient(WebClient.Builder builder, HttpClient openRouterHttpClient) {
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(openRouterHttpClient))
+                .build();
+    }
 }
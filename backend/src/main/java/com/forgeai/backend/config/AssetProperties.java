@@ -0,0 +1,29 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.assets")
+public class AssetProperties {
+    /** Store a minified copy of each HTML, CSS and JS file for serving */
+    private boolean minify = true;
+    /** Store a gzip copy of each served file next to it */
+    private boolean precompress = true;
+
+    public boolean isMinify() {
+        return minify;
+    }
+
+    public void setMinify(boolean minify) {
+        this.minify = minify;
+    }
+
+    public boolean isPrecompress() {
+        return precompress;
+    }
+
+    public void setPrecompress(boolean precompress) {
+        this.precompress = precompress;
+    }
+}
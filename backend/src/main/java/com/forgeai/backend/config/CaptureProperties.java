@@ -0,0 +1,67 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.capture")
+public class CaptureProperties {
+    private boolean enabled = true;
+    /** Fraction of successful generations whose raw completions are kept */
+    private double sampleRate = 0.05;
+    /** Keep the raw completions of every failed generation regardless of sampling */
+    private boolean captureFailures = true;
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    private int maxEntries = 1000;
+    /** Captures waiting to be written; further ones are dropped */
+    private int queueCapacity = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean isCaptureFailures() {
+        return captureFailures;
+    }
+
+    public void setCaptureFailures(boolean captureFailures) {
+        this.captureFailures = captureFailures;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,26 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.edit")
+public class EditProperties {
+
+    public enum Mode {
+        /** Model returns search/replace edits that are applied locally */
+        PATCH,
+        /** Model regenerates every file */
+        FULL
+    }
+
+    private Mode mode = Mode.PATCH;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+}
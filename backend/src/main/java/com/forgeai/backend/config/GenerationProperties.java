@@ -0,0 +1,26 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.generate")
+public class GenerationProperties {
+
+    public enum Mode {
+        /** One completion writes all files in sequence */
+        SINGLE,
+        /** A design spec first, then one concurrent completion per file */
+        FAN_OUT
+    }
+
+    private Mode mode = Mode.SINGLE;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+}
@@ -1,13 +1,118 @@
 package com.forgeai.backend.config;
 
+import com.forgeai.backend.client.OpenRouterOperation;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "openrouter.api")
 public class OpenRouterProperties {
     private String key;
     private String url;
+    private Transport transport = Transport.WEB_CLIENT;
+    private Duration connectTimeout = Duration.ofSeconds(30);
+    private boolean http2 = true;
+    private boolean promptCacheControl = true;
+    private final Pool pool = new Pool();
+    private final Timeouts timeouts = new Timeouts();
+
+    public enum Transport {
+        REST_TEMPLATE,
+        WEB_CLIENT
+    }
+
+    public static class Pool {
+        private int maxConnections = 500;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+        private Duration maxIdleTime = Duration.ofSeconds(60);
+        private Duration maxLifeTime = Duration.ofMinutes(10);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        private int warmupConnections = 2;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public Duration getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public int getWarmupConnections() {
+            return warmupConnections;
+        }
+
+        public void setWarmupConnections(int warmupConnections) {
+            this.warmupConnections = warmupConnections;
+        }
+    }
+
+    public static class Timeouts {
+        private Duration generate = Duration.ofSeconds(60);
+        private Duration edit = Duration.ofSeconds(60);
+
+        public Duration forOperation(OpenRouterOperation operation) {
+            return operation == OpenRouterOperation.EDIT ? edit : generate;
+        }
+
+        public Duration getGenerate() {
+            return generate;
+        }
+
+        public void setGenerate(Duration generate) {
+            this.generate = generate;
+        }
+
+        public Duration getEdit() {
+            return edit;
+        }
+
+        public void setEdit(Duration edit) {
+            this.edit = edit;
+        }
+    }
 
     public String getKey() {
         return key;
@@ -24,4 +129,44 @@ public class OpenRouterProperties {
     public void setUrl(String url) {
         this.url = url;
     }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public boolean isPromptCacheControl() {
+        return promptCacheControl;
+    }
+
+    public void setPromptCacheControl(boolean promptCacheControl) {
+        this.promptCacheControl = promptCacheControl;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
 }
@@ -0,0 +1,37 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.preview.cache")
+public class PreviewCacheProperties {
+    private boolean enabled = true;
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    private DataSize minCompressSize = DataSize.ofBytes(256);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMinCompressSize() {
+        return minCompressSize;
+    }
+
+    public void setMinCompressSize(DataSize minCompressSize) {
+        this.minCompressSize = minCompressSize;
+    }
+}
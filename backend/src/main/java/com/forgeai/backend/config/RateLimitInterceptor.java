@@ -0,0 +1,33 @@
+package com.forgeai.backend.config;
+
+import com.forgeai.backend.service.RateLimitService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits generation requests through {@link RateLimitService} before they
+ * reach a controller. Async re-dispatches of an admitted request are not
+ * charged again.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitService rateLimitService;
+
+    public RateLimitInterceptor(RateLimitService rateLimitService) {
+        this.rateLimitService = rateLimitService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.REQUEST
+                && HttpMethod.POST.matches(request.getMethod())) {
+            rateLimitService.admit(request);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,152 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.ratelimit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private String apiKeyHeader = "X-API-Key";
+    /** Keys whose callers get their own buckets; any other key is limited by address */
+    private Set<String> apiKeys = new LinkedHashSet<>();
+    private boolean trustForwardedFor = false;
+    private long estimatedCompletionTokens = 4000;
+    private Duration idleEviction = Duration.ofMinutes(10);
+    private Limit defaultLimit = new Limit();
+    /** Overrides by caller id, e.g. {@code key:<hash prefix>} or {@code ip:<address>} */
+    private Map<String, Limit> callers = new LinkedHashMap<>();
+
+    /**
+     * Token buckets of one caller: requests and estimated tokens per minute,
+     * each with a burst allowance, and the caller's share of upstream slots
+     * relative to others while they wait.
+     */
+    public static class Limit {
+        private double requestsPerMinute = 30;
+        private double burstRequests = 10;
+        private double tokensPerMinute = 200_000;
+        private double burstTokens = 100_000;
+        private double weight = 1;
+
+        public Limit copy() {
+            Limit copy = new Limit();
+            copy.requestsPerMinute = requestsPerMinute;
+            copy.burstRequests = burstRequests;
+            copy.tokensPerMinute = tokensPerMinute;
+            copy.burstTokens = burstTokens;
+            copy.weight = weight;
+            return copy;
+        }
+
+        public double getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(double requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public double getBurstRequests() {
+            return burstRequests;
+        }
+
+        public void setBurstRequests(double burstRequests) {
+            this.burstRequests = burstRequests;
+        }
+
+        public double getTokensPerMinute() {
+            return tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(double tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
+
+        public double getBurstTokens() {
+            return burstTokens;
+        }
+
+        public void setBurstTokens(double burstTokens) {
+            this.burstTokens = burstTokens;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getApiKeyHeader() {
+        return apiKeyHeader;
+    }
+
+    public void setApiKeyHeader(String apiKeyHeader) {
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    public Set<String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Set<String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    public boolean isTrustForwardedFor() {
+        return trustForwardedFor;
+    }
+
+    public void setTrustForwardedFor(boolean trustForwardedFor) {
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public long getEstimatedCompletionTokens() {
+        return estimatedCompletionTokens;
+    }
+
+    public void setEstimatedCompletionTokens(long estimatedCompletionTokens) {
+        this.estimatedCompletionTokens = estimatedCompletionTokens;
+    }
+
+    public Duration getIdleEviction() {
+        return idleEviction;
+    }
+
+    public void setIdleEviction(Duration idleEviction) {
+        this.idleEviction = idleEviction;
+    }
+
+    public Limit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public Map<String, Limit> getCallers() {
+        return callers;
+    }
+
+    public void setCallers(Map<String, Limit> callers) {
+        this.callers = callers;
+    }
+}
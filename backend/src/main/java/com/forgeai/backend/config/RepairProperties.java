@@ -0,0 +1,29 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.repair")
+public class RepairProperties {
+    /** Repair malformed JSON completions locally instead of failing them */
+    private boolean enabled = true;
+    /** Follow-up requests for the missing files of a truncated completion */
+    private int maxContinuations = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxContinuations() {
+        return maxContinuations;
+    }
+
+    public void setMaxContinuations(int maxContinuations) {
+        this.maxContinuations = maxContinuations;
+    }
+}
@@ -0,0 +1,70 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.retention")
+public class RetentionProperties {
+    private boolean enabled = true;
+    private Duration interval = Duration.ofMinutes(5);
+    /** Upper bound on stored project bytes (before deduplication) */
+    private DataSize quota = DataSize.ofGigabytes(10);
+    /** Idle time after which a project's preview assets leave memory */
+    private Duration hotIdle = Duration.ofMinutes(15);
+    /** Idle time after which a project is archived and loses its history */
+    private Duration warmIdle = Duration.ofDays(7);
+    /** Idle time after which an archived project is deleted */
+    private Duration coldIdle = Duration.ofDays(90);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public DataSize getQuota() {
+        return quota;
+    }
+
+    public void setQuota(DataSize quota) {
+        this.quota = quota;
+    }
+
+    public Duration getHotIdle() {
+        return hotIdle;
+    }
+
+    public void setHotIdle(Duration hotIdle) {
+        this.hotIdle = hotIdle;
+    }
+
+    public Duration getWarmIdle() {
+        return warmIdle;
+    }
+
+    public void setWarmIdle(Duration warmIdle) {
+        this.warmIdle = warmIdle;
+    }
+
+    public Duration getColdIdle() {
+        return coldIdle;
+    }
+
+    public void setColdIdle(Duration coldIdle) {
+        this.coldIdle = coldIdle;
+    }
+}
@@ -0,0 +1,90 @@
+package com.forgeai.backend.config;
+
+import com.forgeai.backend.client.OpenRouterOperation;
+import com.forgeai.backend.dto.ai.OpenRouterRequest;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.router")
+public class RouterProperties {
+    private List<String> generateModels = List.of(OpenRouterRequest.DEFAULT_MODEL);
+    private List<String> editModels = List.of(OpenRouterRequest.DEFAULT_MODEL);
+    private boolean hedging = true;
+    private Duration initialHedgeDelay = Duration.ofSeconds(10);
+    private Duration minHedgeDelay = Duration.ofMillis(500);
+    private int window = 200;
+    private int minSamples = 20;
+    private double maxErrorRate = 0.5;
+
+    public List<String> modelsFor(OpenRouterOperation operation) {
+        return operation == OpenRouterOperation.EDIT ? editModels : generateModels;
+    }
+
+    public List<String> getGenerateModels() {
+        return generateModels;
+    }
+
+    public void setGenerateModels(List<String> generateModels) {
+        this.generateModels = generateModels;
+    }
+
+    public List<String> getEditModels() {
+        return editModels;
+    }
+
+    public void setEditModels(List<String> editModels) {
+        this.editModels = editModels;
+    }
+
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    public void setHedging(boolean hedging) {
+        this.hedging = hedging;
+    }
+
+    public Duration getInitialHedgeDelay() {
+        return initialHedgeDelay;
+    }
+
+    public void setInitialHedgeDelay(Duration initialHedgeDelay) {
+        this.initialHedgeDelay = initialHedgeDelay;
+    }
+
+    public Duration getMinHedgeDelay() {
+        return minHedgeDelay;
+    }
+
+    public void setMinHedgeDelay(Duration minHedgeDelay) {
+        this.minHedgeDelay = minHedgeDelay;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public void setMaxErrorRate(double maxErrorRate) {
+        this.maxErrorRate = maxErrorRate;
+    }
+}
@@ -0,0 +1,83 @@
+package com.forgeai.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "forgeai.storage")
+public class StorageProperties {
+    private Path baseFolder = Paths.get("generated-projects");
+    private int lockStripes = 64;
+    private Engine engine = Engine.FILES;
+    private final Segments segments = new Segments();
+
+    public enum Engine {
+        /** One file per blob and per project ref */
+        FILES,
+        /** Blobs and refs appended to large segment files */
+        SEGMENTS
+    }
+
+    public static class Segments {
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+        private Duration compactionInterval = Duration.ofMinutes(10);
+        private double compactionThreshold = 0.5;
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getCompactionInterval() {
+            return compactionInterval;
+        }
+
+        public void setCompactionInterval(Duration compactionInterval) {
+            this.compactionInterval = compactionInterval;
+        }
+
+        public double getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+    }
+
+    public Path getBaseFolder() {
+        return baseFolder;
+    }
+
+    public void setBaseFolder(Path baseFolder) {
+        this.baseFolder = baseFolder;
+    }
+
+    public int getLockStripes() {
+        return lockStripes;
+    }
+
+    public void setLockStripes(int lockStripes) {
+        this.lockStripes = lockStripes;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public Segments getSegments() {
+        return segments;
+    }
+}
@@ -0,0 +1,25 @@
+package com.forgeai.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final AdminAuthInterceptor adminAuthInterceptor;
+
+    public WebConfig(RateLimitInterceptor rateLimitInterceptor, AdminAuthInterceptor adminAuthInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.adminAuthInterceptor = adminAuthInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/api/generate", "/api/generate-website", "/api/projects/*/edit");
+        registry.addInterceptor(adminAuthInterceptor)
+                .addPathPatterns("/api/admin/**");
+    }
+}
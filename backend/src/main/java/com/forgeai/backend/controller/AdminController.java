@@ -0,0 +1,83 @@
+package com.forgeai.backend.controller;
+
+import com.forgeai.backend.client.UsageRecorder;
+import com.forgeai.backend.config.RateLimitProperties;
+import com.forgeai.backend.dto.RateLimitsResponse;
+import com.forgeai.backend.dto.RawCaptureInfo;
+import com.forgeai.backend.dto.StorageReportResponse;
+import com.forgeai.backend.dto.UsageReportResponse;
+import com.forgeai.backend.service.CaptureService;
+import com.forgeai.backend.service.RateLimitService;
+import com.forgeai.backend.service.RetentionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final RetentionService retentionService;
+    private final UsageRecorder usageRecorder;
+    private final CaptureService captureService;
+    private final RateLimitService rateLimitService;
+
+    public AdminController(RetentionService retentionService, UsageRecorder usageRecorder,
+            CaptureService captureService, RateLimitService rateLimitService) {
+        this.retentionService = retentionService;
+        this.usageRecorder = usageRecorder;
+        this.captureService = captureService;
+        this.rateLimitService = rateLimitService;
+    }
+
+    @GetMapping("/storage")
+    public ResponseEntity<StorageReportResponse> storage() {
+        return ResponseEntity.ok(retentionService.report());
+    }
+
+    @PostMapping("/storage/retention")
+    public ResponseEntity<StorageReportResponse> runRetention() {
+        return ResponseEntity.ok(retentionService.run());
+    }
+
+    @GetMapping("/usage")
+    public ResponseEntity<UsageReportResponse> usage() {
+        return ResponseEntity.ok(usageRecorder.report());
+    }
+
+    @GetMapping("/captures")
+    public ResponseEntity<List<RawCaptureInfo>> captures(@RequestParam(required = false) String projectId) {
+        return ResponseEntity.ok(captureService.list(projectId));
+    }
+
+    @GetMapping("/captures/{id}")
+    public ResponseEntity<byte[]> capture(@PathVariable String id) {
+        return captureService.read(id)
+                .map(json -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/rate-limits")
+    public ResponseEntity<RateLimitsResponse> rateLimits() {
+        return ResponseEntity.ok(rateLimitService.limits());
+    }
+
+    @PutMapping("/rate-limits/default")
+    public ResponseEntity<RateLimitsResponse> setDefaultRateLimit(@RequestBody RateLimitProperties.Limit limit) {
+        return ResponseEntity.ok(rateLimitService.setDefaultLimit(limit));
+    }
+
+    @PutMapping("/rate-limits/callers/{callerId}")
+    public ResponseEntity<RateLimitsResponse> setCallerRateLimit(
+            @PathVariable String callerId,
+            @RequestBody RateLimitProperties.Limit limit) {
+        return ResponseEntity.ok(rateLimitService.setCallerLimit(callerId, limit));
+    }
+
+    @DeleteMapping("/rate-limits/callers/{callerId}")
+    public ResponseEntity<RateLimitsResponse> removeCallerRateLimit(@PathVariable String callerId) {
+        return ResponseEntity.ok(rateLimitService.removeCallerLimit(callerId));
+    }
+}
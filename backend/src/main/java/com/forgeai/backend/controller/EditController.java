@@ -1,9 +1,17 @@
 package com.forgeai.backend.controller;
 
-import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.GenerateStreamEvent;
 import com.forgeai.backend.service.GenerateService;
+import com.forgeai.backend.service.JobService;
+import com.forgeai.backend.util.PreferHeader;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -12,16 +20,32 @@ import java.util.Map;
 public class EditController {
 
     private final GenerateService generateService;
+    private final JobService jobService;
 
-    public EditController(GenerateService generateService) {
+    public EditController(GenerateService generateService, JobService jobService) {
         this.generateService = generateService;
+        this.jobService = jobService;
     }
 
+    /** Runs as a background job instead when the request carries {@code Prefer: respond-async}. */
     @PostMapping("/{projectId}/edit")
-    public GenerateResponse editProject(
+    public Mono<ResponseEntity<?>> editProject(
+            @PathVariable String projectId,
+            @RequestBody Map<String, String> request,
+            @RequestHeader(value = PreferHeader.NAME, required = false) List<String> prefer) {
+        String message = request.getOrDefault("message", "");
+        if (PreferHeader.respondAsync(prefer)) {
+            return Mono.just(GenerateController.accepted(jobService.submitEdit(projectId, message)));
+        }
+        return generateService.editProjectAsync(projectId, message).map(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/{projectId}/edit", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GenerateStreamEvent>> editProjectStream(
             @PathVariable String projectId,
             @RequestBody Map<String, String> request) {
         String message = request.getOrDefault("message", "");
-        return generateService.editProject(projectId, message);
+        return generateService.streamEditProject(projectId, message)
+                .map(event -> ServerSentEvent.builder(event).event(event.type()).build());
     }
 }
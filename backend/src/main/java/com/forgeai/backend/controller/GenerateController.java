@@ -1,9 +1,20 @@
 package com.forgeai.backend.controller;
 
 import com.forgeai.backend.dto.GenerateRequest;
-import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.GenerateStreamEvent;
+import com.forgeai.backend.dto.JobStatusResponse;
 import com.forgeai.backend.service.GenerateService;
+import com.forgeai.backend.service.JobService;
+import com.forgeai.backend.util.PreferHeader;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -11,13 +22,33 @@ import org.springframework.web.bind.annotation.*;
 public class GenerateController {
 
     private final GenerateService generateService;
+    private final JobService jobService;
 
-    public GenerateController(GenerateService generateService) {
+    public GenerateController(GenerateService generateService, JobService jobService) {
         this.generateService = generateService;
+        this.jobService = jobService;
     }
 
+    /** Runs as a background job instead when the request carries {@code Prefer: respond-async}. */
     @PostMapping("/generate")
-    public GenerateResponse generate(@RequestBody GenerateRequest request) {
-        return generateService.generateProject(request);
+    public Mono<ResponseEntity<?>> generate(
+            @RequestBody GenerateRequest request,
+            @RequestHeader(value = PreferHeader.NAME, required = false) List<String> prefer) {
+        if (PreferHeader.respondAsync(prefer)) {
+            return Mono.just(accepted(jobService.submitGenerate(request)));
+        }
+        return generateService.generateProjectAsync(request).map(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/generate", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GenerateStreamEvent>> generateStream(@RequestBody GenerateRequest request) {
+        return generateService.streamProject(request)
+                .map(event -> ServerSentEvent.builder(event).event(event.type()).build());
+    }
+
+    static ResponseEntity<JobStatusResponse> accepted(JobStatusResponse job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.jobId()))
+                .body(job);
     }
 }
@@ -4,6 +4,7 @@ import com.forgeai.backend.dto.GenerateRequest;
 import com.forgeai.backend.dto.GenerateResponse;
 import com.forgeai.backend.service.GenerateService;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api")
@@ -17,7 +18,7 @@ public class GenerateWebsiteController {
     }
 
     @PostMapping("/generate-website")
-    public GenerateResponse generateWebsite(@RequestBody GenerateRequest request) {
-        return generateService.generateProject(request);
+    public Mono<GenerateResponse> generateWebsite(@RequestBody GenerateRequest request) {
+        return generateService.generateProjectAsync(request);
     }
 }
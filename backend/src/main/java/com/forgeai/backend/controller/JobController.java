@@ -0,0 +1,25 @@
+package com.forgeai.backend.controller;
+
+import com.forgeai.backend.dto.JobStatusResponse;
+import com.forgeai.backend.service.JobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "*")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<JobStatusResponse> getJob(@PathVariable String jobId) {
+        return jobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -1,49 +1,72 @@
 package com.forgeai.backend.controller;
 
 import com.forgeai.backend.service.FileStorageService;
+import com.forgeai.backend.service.PipelineMetrics;
+import com.forgeai.backend.service.PreviewAssetCache;
+import com.forgeai.backend.service.ProjectAccessTracker;
 import com.forgeai.backend.service.ZipService;
+import com.forgeai.backend.util.ByteBufferResource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.HandlerMapping;
 
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/projects")
 public class PreviewController {
 
     private static final Logger logger = LoggerFactory.getLogger(PreviewController.class);
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
     private final FileStorageService fileStorageService;
     private final ZipService zipService;
+    private final PreviewAssetCache previewAssetCache;
+    private final ProjectAccessTracker accessTracker;
+    private final PipelineMetrics metrics;
 
-    public PreviewController(FileStorageService fileStorageService, ZipService zipService) {
+    public PreviewController(FileStorageService fileStorageService, ZipService zipService,
+            PreviewAssetCache previewAssetCache, ProjectAccessTracker accessTracker, PipelineMetrics metrics) {
         this.fileStorageService = fileStorageService;
         this.zipService = zipService;
+        this.previewAssetCache = previewAssetCache;
+        this.accessTracker = accessTracker;
+        this.metrics = metrics;
     }
 
     @GetMapping("/{projectId}/preview/**")
     public ResponseEntity<Resource> previewProject(
             @PathVariable String projectId,
+            @RequestParam(required = false) Integer version,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
             HttpServletRequest request) {
+        long start = System.nanoTime();
+        ResponseEntity<Resource> response = preview(projectId, version, acceptEncoding, request);
+        recordServed(PipelineMetrics.Asset.PREVIEW, start, response);
+        return response;
+    }
 
+    private ResponseEntity<Resource> preview(String projectId, Integer version, String acceptEncoding,
+            HttpServletRequest request) {
         try {
             String fullPath = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
             String bestMatchPattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
-            String subPath = new AntPathMatcher().extractPathWithinPattern(bestMatchPattern, fullPath);
+            String subPath = PATH_MATCHER.extractPathWithinPattern(bestMatchPattern, fullPath);
 
             // Default to index.html
             if (subPath == null || subPath.isBlank()) {
@@ -53,30 +76,34 @@ public class PreviewController {
             // Get canonical root
             Path projectRoot = fileStorageService.getProjectRoot(projectId).toAbsolutePath().normalize();
 
-            // Resolve requested file
-            Path requestedFile = projectRoot.resolve(subPath).normalize();
-
             // 🔐 SECURITY: Must stay inside project folder
-            if (!requestedFile.startsWith(projectRoot)) {
+            if (!projectRoot.resolve(subPath).normalize().startsWith(projectRoot)) {
                 logger.warn("Blocked path traversal attempt: {}", subPath);
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            if (!Files.exists(requestedFile) || Files.isDirectory(requestedFile)) {
-                logger.info("File not found: {}", requestedFile);
+            Optional<PreviewAssetCache.PreviewAsset> asset = previewAssetCache.get(projectId, version, subPath);
+            if (asset.isEmpty()) {
+                logger.info("File not found: {}/{}", projectId, subPath);
                 return ResponseEntity.notFound().build();
             }
 
-            MediaType mediaType = getMediaTypeForPath(requestedFile);
-
-            logger.info("Serving preview file: {}", requestedFile);
-
-            Resource resource = new FileSystemResource(requestedFile);
-
-            return ResponseEntity.ok()
-                    .contentType(mediaType)
-                    .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
-                    .body(resource);
+            accessTracker.touch(projectId);
+            PreviewAssetCache.PreviewAsset previewAsset = asset.get();
+            boolean gzip = previewAsset.gzipped() != null && acceptsGzip(acceptEncoding);
+
+            // The file may change on edit, so browsers revalidate every time;
+            // a matching If-None-Match is answered with 304 by Spring MVC
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(previewAsset.mediaType())
+                    .eTag(gzip ? previewAsset.gzipEtag() : previewAsset.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .body(new ByteBufferResource(previewAsset.gzipped(), subPath + ".gz"));
+            }
+            return response.body(new ByteBufferResource(previewAsset.content(), subPath));
 
         } catch (Exception e) {
             logger.error("Preview error", e);
@@ -84,53 +111,66 @@ public class PreviewController {
         }
     }
 
-    private MediaType getMediaTypeForPath(Path path) {
-        String fileName = path.getFileName().toString().toLowerCase();
-        if (fileName.endsWith(".html"))
-            return MediaType.TEXT_HTML;
-        if (fileName.endsWith(".css"))
-            return MediaType.parseMediaType("text/css");
-        if (fileName.endsWith(".js"))
-            return MediaType.parseMediaType("application/javascript");
-        if (fileName.endsWith(".png"))
-            return MediaType.IMAGE_PNG;
-        if (fileName.endsWith(".jpg") || fileName.endsWith(".jpeg"))
-            return MediaType.IMAGE_JPEG;
-        if (fileName.endsWith(".svg"))
-            return MediaType.parseMediaType("image/svg+xml");
-
-        try {
-            String contentType = Files.probeContentType(path);
-            if (contentType != null) {
-                return MediaType.parseMediaType(contentType);
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").equalsIgnoreCase("q=0");
             }
-        } catch (Exception e) {
-            logger.warn("Could not probe content type for {}: {}", path, e.getMessage());
         }
-
-        return MediaType.APPLICATION_OCTET_STREAM;
+        return false;
     }
 
+    // Range and If-None-Match are handled by Spring MVC for Resource bodies
     @GetMapping("/{projectId}/download")
-    public ResponseEntity<Resource> downloadProject(@PathVariable String projectId) {
+    public ResponseEntity<Resource> downloadProject(
+            @PathVariable String projectId,
+            @RequestParam(required = false) Integer version) {
+        long start = System.nanoTime();
+        ResponseEntity<Resource> response = download(projectId, version);
+        recordServed(PipelineMetrics.Asset.DOWNLOAD, start, response);
+        return response;
+    }
+
+    private ResponseEntity<Resource> download(String projectId, Integer version) {
         try {
-            Path zipFilePath = Paths.get("generated", projectId + ".zip");
-            
-            if (!Files.exists(zipFilePath)) {
-                logger.warn("ZIP file not found for project: {}", projectId);
+            Optional<ZipService.ProjectArchive> archive = zipService.archive(projectId, version);
+
+            if (archive.isEmpty()) {
+                logger.warn("No files to zip for project: {}", projectId);
                 return ResponseEntity.notFound().build();
             }
-            
-            Resource resource = new FileSystemResource(zipFilePath);
-            
+
+            accessTracker.touch(projectId);
+            Resource resource = new ByteArrayResource(archive.get().content());
+
             return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
                             "attachment; filename=\"" + projectId + ".zip\"")
                     .header(HttpHeaders.CONTENT_TYPE, "application/zip")
+                    .eTag(archive.get().etag())
+                    .cacheControl(CacheControl.noCache())
                     .body(resource);
         } catch (Exception e) {
             logger.error("Download error for project {}", projectId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // Conditional and range requests are resolved after this, so bytes are
+    // those of the full representation
+    private void recordServed(PipelineMetrics.Asset asset, long start, ResponseEntity<Resource> response) {
+        long bytes = 0;
+        if (response.getBody() != null) {
+            try {
+                bytes = response.getBody().contentLength();
+            } catch (IOException e) {
+                logger.debug("Unknown body size for {}: {}", asset, e.getMessage());
+            }
+        }
+        metrics.served(asset, System.nanoTime() - start, response.getStatusCode().value(), bytes);
+    }
 }
@@ -0,0 +1,34 @@
+package com.forgeai.backend.controller;
+
+import com.forgeai.backend.dto.ProjectVersionsResponse;
+import com.forgeai.backend.service.FileStorageService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/projects")
+@CrossOrigin(origins = "*")
+public class ProjectVersionController {
+
+    private final FileStorageService fileStorageService;
+
+    public ProjectVersionController(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    @GetMapping("/{projectId}/versions")
+    public ResponseEntity<ProjectVersionsResponse> listVersions(@PathVariable String projectId) {
+        return fileStorageService.listVersions(projectId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{projectId}/versions/{version}/rollback")
+    public ResponseEntity<ProjectVersionsResponse> rollback(
+            @PathVariable String projectId,
+            @PathVariable int version) {
+        return fileStorageService.rollback(projectId, version)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
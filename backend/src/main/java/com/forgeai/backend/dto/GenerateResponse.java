@@ -1,5 +1,7 @@
 package com.forgeai.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class GenerateResponse {
@@ -7,6 +9,8 @@ public class GenerateResponse {
     private String message;
     private String projectId;
     private List<GeneratedFile> files;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<GenerationUsage> usage;
 
     public GenerateResponse(boolean success, String message, String projectId, List<GeneratedFile> files) {
         this.success = success;
@@ -76,4 +80,12 @@ public class GenerateResponse {
     public void setFiles(List<GeneratedFile> files) {
         this.files = files;
     }
+
+    public List<GenerationUsage> getUsage() {
+        return usage;
+    }
+
+    public void setUsage(List<GenerationUsage> usage) {
+        this.usage = usage;
+    }
 }
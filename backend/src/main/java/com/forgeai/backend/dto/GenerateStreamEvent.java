@@ -0,0 +1,31 @@
+package com.forgeai.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GenerateStreamEvent(
+        String type,
+        String message,
+        String projectId,
+        GenerateResponse.GeneratedFile file,
+        Integer completedFiles,
+        List<GenerationUsage> usage) {
+
+    public static GenerateStreamEvent progress(String message, int completedFiles) {
+        return new GenerateStreamEvent("progress", message, null, null, completedFiles, null);
+    }
+
+    public static GenerateStreamEvent file(GenerateResponse.GeneratedFile file) {
+        return new GenerateStreamEvent("file", null, null, file, null, null);
+    }
+
+    public static GenerateStreamEvent complete(String projectId, String message, List<GenerationUsage> usage) {
+        return new GenerateStreamEvent("complete", message, projectId, null, null, usage);
+    }
+
+    public static GenerateStreamEvent error(String message) {
+        return new GenerateStreamEvent("error", message, null, null, null, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.forgeai.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One upstream completion: the model asked for and the one that served it,
+ * the tokens OpenRouter billed and how long the call took. Token counts are
+ * null when the call ended before OpenRouter reported usage.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GenerationUsage(
+        String endpoint,
+        String requestedModel,
+        String model,
+        Integer promptTokens,
+        Integer cachedPromptTokens,
+        Integer completionTokens,
+        long latencyMs,
+        Long timeToFirstTokenMs) {
+}
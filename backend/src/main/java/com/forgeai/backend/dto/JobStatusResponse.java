@@ -0,0 +1,17 @@
+package com.forgeai.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobStatusResponse(
+        String jobId,
+        String type,
+        String status,
+        String projectId,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        GenerateResponse result) {
+}
@@ -0,0 +1,16 @@
+package com.forgeai.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ProjectVersionsResponse(
+        String projectId,
+        int currentVersion,
+        List<VersionInfo> versions) {
+
+    public record VersionInfo(
+            int version,
+            Instant createdAt,
+            List<String> changedPaths) {
+    }
+}
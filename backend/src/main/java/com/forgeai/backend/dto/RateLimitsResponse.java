@@ -0,0 +1,11 @@
+package com.forgeai.backend.dto;
+
+import com.forgeai.backend.config.RateLimitProperties;
+
+import java.util.Map;
+
+public record RateLimitsResponse(
+        RateLimitProperties.Limit defaultLimit,
+        Map<String, RateLimitProperties.Limit> callers,
+        int activeCallers) {
+}
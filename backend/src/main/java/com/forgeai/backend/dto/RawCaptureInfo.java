@@ -0,0 +1,12 @@
+package com.forgeai.backend.dto;
+
+import java.time.Instant;
+
+public record RawCaptureInfo(
+        String id,
+        String projectId,
+        String operation,
+        String outcome,
+        Instant capturedAt,
+        long compressedBytes) {
+}
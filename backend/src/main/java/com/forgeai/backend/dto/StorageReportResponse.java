@@ -0,0 +1,24 @@
+package com.forgeai.backend.dto;
+
+import java.time.Instant;
+
+public record StorageReportResponse(
+        Instant lastRun,
+        long quotaBytes,
+        Tier hot,
+        Tier warm,
+        Tier cold,
+        Evictions evictions) {
+
+    public record Tier(
+            int projects,
+            long bytes) {
+    }
+
+    /** Projects that left each tier: hot to warm, warm to cold, cold to deleted. */
+    public record Evictions(
+            long hot,
+            long warm,
+            long cold) {
+    }
+}
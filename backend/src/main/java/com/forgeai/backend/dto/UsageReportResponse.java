@@ -0,0 +1,21 @@
+package com.forgeai.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record UsageReportResponse(
+        Instant since,
+        List<Entry> totals,
+        List<GenerationUsage> recent) {
+
+    public record Entry(
+            String model,
+            String endpoint,
+            long calls,
+            long promptTokens,
+            long cachedPromptTokens,
+            long completionTokens,
+            double averageLatencyMs,
+            Double averageTimeToFirstTokenMs) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.forgeai.backend.dto.ai;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared plan the files are generated from in fan-out mode, so markup,
+ * styles and script agree on names without seeing each other.
+ */
+public record DesignSpec(List<Section> sections, List<String> classes, Map<String, String> colors, String font) {
+
+    public record Section(String id, String content) {
+    }
+}
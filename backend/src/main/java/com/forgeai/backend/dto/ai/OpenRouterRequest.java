@@ -1,16 +1,52 @@
 package com.forgeai.backend.dto.ai;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record OpenRouterRequest(
         String model,
-        List<Message> messages) {
-    public record Message(String role, String content) {
+        List<Message> messages,
+        Boolean stream,
+        UsageOptions usage) {
+    public static final String DEFAULT_MODEL = "deepseek/deepseek-chat";
+
+    /**
+     * Content is either plain text or a list of {@link ContentPart}s, the
+     * latter being needed to attach cache-control hints.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Message(String role, Object content) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ContentPart(
+            String type,
+            String text,
+            @JsonProperty("cache_control") CacheControl cacheControl) {
+    }
+
+    public record CacheControl(String type) {
+    }
+
+    public record UsageOptions(boolean include) {
     }
 
-    public static OpenRouterRequest defaultRequest(String prompt) {
+    public static OpenRouterRequest defaultRequest(Prompt prompt, String model, boolean cacheControl) {
+        Object systemContent = cacheControl
+                ? List.of(new ContentPart("text", prompt.system(), new CacheControl("ephemeral")))
+                : prompt.system();
         return new OpenRouterRequest(
-                "deepseek/deepseek-chat",
-                List.of(new Message("user", prompt)));
+                model,
+                List.of(new Message("system", systemContent), new Message("user", prompt.user())),
+                null,
+                new UsageOptions(true));
+    }
+
+    public static OpenRouterRequest streamingRequest(Prompt prompt, String model, boolean cacheControl) {
+        OpenRouterRequest request = defaultRequest(prompt, model, cacheControl);
+        return new OpenRouterRequest(request.model(), request.messages(), true, request.usage());
     }
 }
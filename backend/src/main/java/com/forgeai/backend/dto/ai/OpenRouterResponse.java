@@ -3,7 +3,9 @@ package com.forgeai.backend.dto.ai;
 import java.util.List;
 
 public record OpenRouterResponse(
-        List<Choice> choices) {
+        String model,
+        List<Choice> choices,
+        OpenRouterUsage usage) {
     public record Choice(Message message) {
     }
 
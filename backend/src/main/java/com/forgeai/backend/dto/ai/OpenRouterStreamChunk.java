@@ -0,0 +1,18 @@
+package com.forgeai.backend.dto.ai;
+
+import java.util.List;
+
+public record OpenRouterStreamChunk(
+        String model,
+        List<Choice> choices,
+        Error error,
+        OpenRouterUsage usage) {
+    public record Choice(Delta delta) {
+    }
+
+    public record Delta(String role, String content) {
+    }
+
+    public record Error(Integer code, String message) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.forgeai.backend.dto.ai;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record OpenRouterUsage(
+        @JsonProperty("prompt_tokens") Integer promptTokens,
+        @JsonProperty("completion_tokens") Integer completionTokens,
+        @JsonProperty("total_tokens") Integer totalTokens,
+        @JsonProperty("prompt_tokens_details") PromptTokensDetails promptTokensDetails) {
+
+    public record PromptTokensDetails(
+            @JsonProperty("cached_tokens") Integer cachedTokens) {
+    }
+
+    public int cachedPromptTokens() {
+        return promptTokensDetails == null || promptTokensDetails.cachedTokens() == null
+                ? 0
+                : promptTokensDetails.cachedTokens();
+    }
+
+    public int uncachedPromptTokens() {
+        return promptTokens == null ? 0 : Math.max(0, promptTokens - cachedPromptTokens());
+    }
+}
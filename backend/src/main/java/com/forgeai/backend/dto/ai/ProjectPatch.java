@@ -0,0 +1,15 @@
+package com.forgeai.backend.dto.ai;
+
+import java.util.List;
+
+/**
+ * Search/replace edits returned by the model in patch edit mode.
+ */
+public record ProjectPatch(List<FilePatch> patches) {
+
+    public record FilePatch(String path, List<Edit> edits) {
+    }
+
+    public record Edit(String search, String replace) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.forgeai.backend.dto.ai;
+
+/**
+ * A chat prompt split into the static system instructions, which providers
+ * can cache as a shared prefix, and the per-request user message.
+ */
+public record Prompt(String system, String user) {
+}
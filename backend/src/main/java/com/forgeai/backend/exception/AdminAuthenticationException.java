@@ -0,0 +1,8 @@
+package com.forgeai.backend.exception;
+
+public class AdminAuthenticationException extends RuntimeException {
+
+    public AdminAuthenticationException(String message) {
+        super(message);
+    }
+}
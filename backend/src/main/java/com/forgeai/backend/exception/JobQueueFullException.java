@@ -0,0 +1,17 @@
+package com.forgeai.backend.exception;
+
+import java.time.Duration;
+
+public class JobQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public JobQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
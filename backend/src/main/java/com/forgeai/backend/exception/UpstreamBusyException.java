@@ -0,0 +1,8 @@
+package com.forgeai.backend.exception;
+
+public class UpstreamBusyException extends RuntimeException {
+
+    public UpstreamBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,121 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.AssetProperties;
+import com.forgeai.backend.config.PreviewCacheProperties;
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.util.AssetMinifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Post-processing between validation and save: a minified copy of each file
+ * for serving, and a gzip copy of that, compressed once at the best level
+ * rather than on every preview. Edits and downloads keep working from the
+ * files as the model wrote them. What gets compressed follows the preview
+ * cache: the same media types and {@code forgeai.preview.cache.min-compress-size}.
+ */
+@Component
+public class AssetOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssetOptimizer.class);
+
+    private final AssetProperties properties;
+    private final PreviewCacheProperties previewProperties;
+    private final Counter originalBytes;
+    private final Counter minifiedBytes;
+    private final Counter gzipBytes;
+
+    public AssetOptimizer(AssetProperties properties, PreviewCacheProperties previewProperties,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.previewProperties = previewProperties;
+        this.originalBytes = bytesCounter(meterRegistry, "original");
+        this.minifiedBytes = bytesCounter(meterRegistry, "minified");
+        this.gzipBytes = bytesCounter(meterRegistry, "gzip");
+    }
+
+    /**
+     * Variants to store for each path. A variant is null when it is disabled
+     * or would not be smaller than what it replaces.
+     */
+    public Map<String, Variants> optimize(List<GenerateResponse.GeneratedFile> files) {
+        Map<String, Variants> variants = new HashMap<>();
+        for (GenerateResponse.GeneratedFile file : files) {
+            byte[] original = file.getContent().getBytes(StandardCharsets.UTF_8);
+            byte[] served = original;
+
+            byte[] minified = null;
+            if (properties.isMinify()) {
+                byte[] candidate = minify(file);
+                if (candidate.length < original.length) {
+                    minified = candidate;
+                    served = candidate;
+                }
+            }
+
+            byte[] gzipped = null;
+            if (properties.isPrecompress()
+                    && PreviewAssetCache.isCompressible(PreviewAssetCache.mediaTypeFor(file.getPath()))
+                    && served.length >= previewProperties.getMinCompressSize().toBytes()) {
+                byte[] candidate = gzip(served);
+                if (candidate.length < served.length) {
+                    gzipped = candidate;
+                }
+            }
+
+            originalBytes.increment(original.length);
+            minifiedBytes.increment(served.length);
+            gzipBytes.increment(gzipped == null ? served.length : gzipped.length);
+            variants.put(file.getPath(), new Variants(minified, gzipped));
+        }
+        return variants;
+    }
+
+    // A minifier bug must not cost the user their project
+    private static byte[] minify(GenerateResponse.GeneratedFile file) {
+        try {
+            return AssetMinifier.minify(file.getPath(), file.getContent()).getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            logger.warn("Could not minify {}, serving it as written: {}", file.getPath(), e.getMessage());
+            return file.getContent().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not compress asset", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Counter bytesCounter(MeterRegistry meterRegistry, String variant) {
+        return Counter.builder("forgeai.assets.optimized.bytes")
+                .description("Bytes of saved files as written, minified and gzipped")
+                .tag("variant", variant)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /** Bytes to store next to a file; either may be null. */
+    public record Variants(byte[] minified, byte[] gzipped) {
+    }
+}
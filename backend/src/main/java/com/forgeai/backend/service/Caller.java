@@ -0,0 +1,37 @@
+package com.forgeai.backend.service;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Who a generation is done for, as admitted by {@link RateLimitService}.
+ * Set as a request attribute for the controllers and carried in the Reactor
+ * context so {@link UpstreamLimiter} can share slots fairly between callers.
+ *
+ * @param estimatedTokens tokens charged at admission, settled against the
+ *                        reported usage once the generation finishes
+ */
+public record Caller(String id, double weight, long estimatedTokens) {
+
+    public static final Caller ANONYMOUS = new Caller("anonymous", 1, 0);
+
+    static final String ATTRIBUTE = Caller.class.getName();
+    private static final Object KEY = Caller.class;
+
+    public Context attach(Context context) {
+        return context.put(KEY, this);
+    }
+
+    public static Caller from(ContextView context) {
+        return context.getOrDefault(KEY, ANONYMOUS);
+    }
+
+    /** The caller of the current HTTP request, or anonymous off the request thread. */
+    public static Caller current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object caller = attributes == null ? null : attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return caller instanceof Caller known ? known : ANONYMOUS;
+    }
+}
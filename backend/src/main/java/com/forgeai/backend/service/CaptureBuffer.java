@@ -0,0 +1,60 @@
+package com.forgeai.backend.service;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Raw text of the completions made for one generation, in call order. Lives in
+ * the Reactor context of the pipeline so {@link CompletionService} can append
+ * to it without knowing which project it works for.
+ */
+public class CaptureBuffer {
+
+    private static final Object KEY = CaptureBuffer.class;
+
+    /** Used when capture is disabled; never attached to a context. */
+    static final CaptureBuffer NONE = new CaptureBuffer(null, null);
+
+    private final String projectId;
+    private final String operation;
+    private final List<StringBuilder> calls = new ArrayList<>();
+
+    CaptureBuffer(String projectId, String operation) {
+        this.projectId = projectId;
+        this.operation = operation;
+    }
+
+    public Context attach(Context context) {
+        return this == NONE ? context : context.put(KEY, this);
+    }
+
+    public static Optional<CaptureBuffer> from(ContextView context) {
+        return context.getOrEmpty(KEY);
+    }
+
+    /** Starts a new completion and returns its index for {@link #append}. */
+    synchronized int startCall() {
+        calls.add(new StringBuilder());
+        return calls.size() - 1;
+    }
+
+    synchronized void append(int call, String text) {
+        calls.get(call).append(text);
+    }
+
+    String projectId() {
+        return projectId;
+    }
+
+    String operation() {
+        return operation;
+    }
+
+    synchronized List<String> calls() {
+        return calls.stream().map(StringBuilder::toString).toList();
+    }
+}
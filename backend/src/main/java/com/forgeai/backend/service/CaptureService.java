@@ -0,0 +1,222 @@
+package com.forgeai.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forgeai.backend.client.OpenRouterOperation;
+import com.forgeai.backend.config.CaptureProperties;
+import com.forgeai.backend.config.StorageProperties;
+import com.forgeai.backend.dto.RawCaptureInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the raw model output of a sample of generations, and of failed ones,
+ * for debugging. Captures are compressed and written by a single background
+ * thread into {@code <base>/captures}, one file per generation; the oldest
+ * are deleted once the folder exceeds its size or entry limit. When the
+ * writer falls behind, new captures are dropped rather than slowing requests.
+ */
+@Service
+public class CaptureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaptureService.class);
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9-]{1,64}");
+    private static final String SUFFIX = ".json.gz";
+
+    private final CaptureProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Path folder;
+    private final ThreadPoolExecutor writer;
+    // Ids start with the capture time, so iteration order is oldest first
+    private final ConcurrentSkipListMap<String, RawCaptureInfo> captures = new ConcurrentSkipListMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+
+    public CaptureService(CaptureProperties properties, StorageProperties storageProperties,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.folder = storageProperties.getBaseFolder().resolve("captures");
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("forgeai-capture").daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.writtenCounter = Counter.builder("forgeai.capture").tag("result", "written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("forgeai.capture").tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("forgeai.capture.bytes", totalBytes, AtomicLong::get).register(meterRegistry);
+        load();
+    }
+
+    /** A buffer to attach to one generation's pipeline, or a no-op one when capture is off. */
+    public CaptureBuffer buffer(String projectId, OpenRouterOperation operation) {
+        if (!properties.isEnabled()) {
+            return CaptureBuffer.NONE;
+        }
+        String name = projectId != null && SAFE_NAME.matcher(projectId).matches() ? projectId : "unknown";
+        return new CaptureBuffer(name, PipelineMetrics.tag(operation));
+    }
+
+    /**
+     * Queues the buffer for writing if this generation is sampled, or failed
+     * and failures are always kept. Never blocks.
+     */
+    public void submit(CaptureBuffer buffer, boolean failed) {
+        if (buffer == CaptureBuffer.NONE) {
+            return;
+        }
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        if (!sampled && !(failed && properties.isCaptureFailures())) {
+            return;
+        }
+        List<String> calls = buffer.calls();
+        if (calls.isEmpty()) {
+            return;
+        }
+
+        Capture capture = new Capture(buffer.projectId(), buffer.operation(), failed ? "failure" : "success",
+                Instant.now(), calls);
+        try {
+            writer.execute(() -> write(capture));
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment();
+        }
+    }
+
+    /** Captures newest first, optionally only those of one project. */
+    public List<RawCaptureInfo> list(String projectId) {
+        return captures.descendingMap().values().stream()
+                .filter(info -> projectId == null || info.projectId().equals(projectId))
+                .toList();
+    }
+
+    /** The capture as JSON, or empty if it does not exist or was evicted. */
+    public Optional<byte[]> read(String id) {
+        RawCaptureInfo info = captures.get(id);
+        if (info == null) {
+            return Optional.empty();
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(pathFor(info)))) {
+            return Optional.of(in.readAllBytes());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read capture " + id, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void write(Capture capture) {
+        String id = String.format("%013d-%06d", capture.capturedAt().toEpochMilli(),
+                sequence.incrementAndGet() % 1_000_000);
+        RawCaptureInfo pending = new RawCaptureInfo(id, capture.projectId(), capture.operation(), capture.outcome(),
+                capture.capturedAt(), 0);
+        Path file = pathFor(pending);
+        Path tmp = folder.resolve(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(folder);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                objectMapper.writeValue(out, capture);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+
+            long size = Files.size(file);
+            captures.put(id, new RawCaptureInfo(id, capture.projectId(), capture.operation(), capture.outcome(),
+                    capture.capturedAt(), size));
+            totalBytes.addAndGet(size);
+            writtenCounter.increment();
+            trim();
+        } catch (IOException e) {
+            logger.warn("Could not write capture for project {}: {}", capture.projectId(), e.getMessage());
+        }
+    }
+
+    private void trim() {
+        long maxBytes = properties.getMaxSize().toBytes();
+        while (captures.size() > properties.getMaxEntries() || totalBytes.get() > maxBytes) {
+            Map.Entry<String, RawCaptureInfo> oldest = captures.pollFirstEntry();
+            if (oldest == null) {
+                return;
+            }
+            totalBytes.addAndGet(-oldest.getValue().compressedBytes());
+            try {
+                Files.deleteIfExists(pathFor(oldest.getValue()));
+            } catch (IOException e) {
+                logger.warn("Could not delete capture {}: {}", oldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    // File names carry the metadata so the index is rebuilt without reading them
+    private Path pathFor(RawCaptureInfo info) {
+        return folder.resolve(String.join("_", info.id(), info.projectId(), info.operation(), info.outcome())
+                + SUFFIX);
+    }
+
+    private void load() {
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                String[] parts = name.endsWith(SUFFIX)
+                        ? name.substring(0, name.length() - SUFFIX.length()).split("_")
+                        : new String[0];
+                if (parts.length != 4) {
+                    return;
+                }
+                try {
+                    long size = Files.size(file);
+                    Instant capturedAt = Instant.ofEpochMilli(Long.parseLong(parts[0].substring(0, 13)));
+                    captures.put(parts[0], new RawCaptureInfo(parts[0], parts[1], parts[2], parts[3], capturedAt,
+                            size));
+                    totalBytes.addAndGet(size);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Ignoring capture file {}: {}", name, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Could not list captures in {}: {}", folder, e.getMessage());
+        }
+        trim();
+    }
+
+    private record Capture(String projectId, String operation, String outcome, Instant capturedAt,
+            List<String> completions) {
+    }
+}
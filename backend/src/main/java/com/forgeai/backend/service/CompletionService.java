@@ -0,0 +1,94 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.client.OpenRouterClient;
+import com.forgeai.backend.client.OpenRouterOperation;
+import com.forgeai.backend.client.ReactiveOpenRouterClient;
+import com.forgeai.backend.client.UsageCollector;
+import com.forgeai.backend.config.OpenRouterProperties;
+import com.forgeai.backend.dto.ai.Prompt;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Single entry point for OpenRouter calls: picks the configured transport and
+ * lets the {@link ModelRouter} choose the model and run the call under the
+ * {@link UpstreamLimiter}. Raw completion text is
+ * not logged; it goes to the {@link CaptureBuffer} in the subscriber context,
+ * if any.
+ */
+@Service
+public class CompletionService {
+
+    private static final int CHUNK_CHARS = 8192;
+
+    private final OpenRouterClient openRouterClient;
+    private final ReactiveOpenRouterClient reactiveOpenRouterClient;
+    private final OpenRouterProperties openRouterProperties;
+    private final ModelRouter modelRouter;
+    private final Scheduler blockingScheduler;
+
+    public CompletionService(OpenRouterClient openRouterClient, ReactiveOpenRouterClient reactiveOpenRouterClient,
+            OpenRouterProperties openRouterProperties, ModelRouter modelRouter, Scheduler blockingScheduler) {
+        this.openRouterClient = openRouterClient;
+        this.reactiveOpenRouterClient = reactiveOpenRouterClient;
+        this.openRouterProperties = openRouterProperties;
+        this.modelRouter = modelRouter;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    /**
+     * Streams content deltas from OpenRouter regardless of the configured
+     * transport.
+     */
+    public Flux<String> stream(Prompt prompt, OpenRouterOperation operation) {
+        return capture(modelRouter.route(operation,
+                model -> reactiveOpenRouterClient.stream(prompt, operation, model),
+                CompletionService::hasContent));
+    }
+
+    /**
+     * Completion text in chunks: streamed deltas on the WebClient transport, or
+     * the blocking RestTemplate result cut into slices so callers never copy
+     * it as a whole.
+     */
+    public Flux<String> chunks(Prompt prompt, OpenRouterOperation operation) {
+        if (openRouterProperties.getTransport() == OpenRouterProperties.Transport.WEB_CLIENT) {
+            return stream(prompt, operation);
+        }
+
+        return complete(prompt, operation)
+                .flatMapMany(aiResult -> Flux.range(0, (aiResult.length() + CHUNK_CHARS - 1) / CHUNK_CHARS)
+                        .map(i -> aiResult.substring(i * CHUNK_CHARS,
+                                Math.min((i + 1) * CHUNK_CHARS, aiResult.length()))));
+    }
+
+    public Mono<String> complete(Prompt prompt, OpenRouterOperation operation) {
+        if (openRouterProperties.getTransport() == OpenRouterProperties.Transport.WEB_CLIENT) {
+            return capture(modelRouter.route(operation,
+                    model -> reactiveOpenRouterClient.generate(prompt, operation, model),
+                    CompletionService::hasContent))
+                    .next();
+        }
+
+        return capture(modelRouter.route(operation, model -> Mono.deferContextual(context -> Mono.fromCallable(
+                        () -> openRouterClient.generate(prompt, operation, model,
+                                UsageCollector.from(context).orElse(null))))
+                .subscribeOn(blockingScheduler), CompletionService::hasContent))
+                .next();
+    }
+
+    private static boolean hasContent(String text) {
+        return !text.isBlank();
+    }
+
+    private static Flux<String> capture(Flux<String> completion) {
+        return Flux.deferContextual(context -> CaptureBuffer.from(context)
+                .map(buffer -> {
+                    int call = buffer.startCall();
+                    return completion.doOnNext(text -> buffer.append(call, text));
+                })
+                .orElse(completion));
+    }
+}
@@ -1,69 +1,701 @@
 package com.forgeai.backend.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forgeai.backend.config.StorageProperties;
 import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.ProjectVersionsResponse;
+import com.forgeai.backend.storage.BlobStore;
+import com.forgeai.backend.storage.ProjectManifest;
+import com.forgeai.backend.storage.ProjectRef;
+import com.forgeai.backend.storage.ProjectRefStore;
+import com.forgeai.backend.util.StripedLocks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Project files on top of the content-addressed {@link BlobStore}: each file
+ * body is a blob, each saved version is a manifest blob, and the project's
+ * ref lists its versions and which one is current. Writers of the same
+ * project are serialized by a striped lock; readers take no lock, as every
+ * ref they read names a complete, immutable manifest. Projects saved before the
+ * blob store existed are still read from their {@code <base>/<projectId>}
+ * directory until retention archives them into the blob store.
+ * <p>
+ * Cold projects keep a single gzip archive blob instead of their manifests;
+ * they are rehydrated on first read. Blobs are only removed by
+ * {@link #collectGarbage()}. Writers hold the collection read lock from their
+ * first blob write to their ref update; see there for how that keeps a blob
+ * written for a ref not yet updated from being swept.
+ */
 @Service
 public class FileStorageService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
-    private static final String BASE_FOLDER = "generated-projects";
+    private static final TypeReference<List<GenerateResponse.GeneratedFile>> ARCHIVE_TYPE = new TypeReference<>() {
+    };
+    private static final int SWEEP_BATCH = 256;
 
+    private final BlobStore blobStore;
+    private final ProjectRefStore refStore;
+    private final ObjectMapper objectMapper;
+    private final StorageProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AssetOptimizer assetOptimizer;
+    private final StripedLocks projectLocks;
+    private final ReadWriteLock collectionLock = new ReentrantReadWriteLock();
+    private final ReentrantLock collectionRunLock = new ReentrantLock();
+    // Blobs written while a collection is marking; null when none is running
+    private volatile Set<String> writtenDuringCollection;
+
+    public FileStorageService(BlobStore blobStore, ProjectRefStore refStore, ObjectMapper objectMapper,
+            StorageProperties properties, ApplicationEventPublisher eventPublisher, AssetOptimizer assetOptimizer) {
+        this.blobStore = blobStore;
+        this.refStore = refStore;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.assetOptimizer = assetOptimizer;
+        this.projectLocks = new StripedLocks(properties.getLockStripes());
+    }
+
+    /**
+     * Saves the files as a new version of the project. Only changed bodies are
+     * written; earlier versions stay readable and unchanged.
+     */
     public void saveProjectFiles(String projectId, List<GenerateResponse.GeneratedFile> files) {
-        Path projectDirPath = Paths.get(BASE_FOLDER, projectId);
+        saveProjectFiles(projectId, files, Map.of());
+    }
 
+    /**
+     * Saves the files together with the copies to serve them from, keyed by
+     * path; see {@link AssetOptimizer}.
+     */
+    public void saveProjectFiles(String projectId, List<GenerateResponse.GeneratedFile> files,
+            Map<String, AssetOptimizer.Variants> variants) {
+        collectionLock.readLock().lock();
         try {
-            // 1. Create Base Folder and Project Folder
-            Files.createDirectories(projectDirPath);
-            logger.info("Created directory: {}", projectDirPath.toAbsolutePath());
+            // 1. Write file bodies; unchanged and shared files are already stored
+            ProjectManifest manifest = new ProjectManifest(putFiles(files, variants));
+
+            // 2. Write the manifest, then point the project at a new version of it.
+            // Blobs are immutable, so only the ref update needs the project lock.
+            String manifestHash = put(objectMapper.writeValueAsBytes(manifest));
+            Lock lock = projectLocks.lockFor(projectId);
+            lock.lock();
+            try {
+                Optional<ProjectRef> existing = readRef(projectId).map(ref -> warm(projectId, ref));
+                ProjectRef ref;
+                if (existing.isEmpty()) {
+                    ref = ProjectRef.initial(manifestHash,
+                            manifest.files().stream().map(ProjectManifest.Entry::path).toList(), Instant.now(),
+                            totalBytes(manifest.files()));
+                } else {
+                    ProjectRef.Version current = existing.get().currentVersion();
+                    if (current.manifest().equals(manifestHash)) {
+                        logger.info("Project {} unchanged at version {}", projectId, current.number());
+                        return;
+                    }
+                    List<String> changed = changedPaths(readManifest(current.manifest()), manifest);
+                    ref = existing.get().append(manifestHash, changed, Instant.now(), totalBytes(
+                            manifest.files().stream().filter(entry -> changed.contains(entry.path())).toList()));
+                }
+                writeRef(projectId, ref);
+                logger.info("Saved project {} version {} as manifest {}", projectId, ref.current(), manifestHash);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to save project files for projectId {}: {}", projectId, e.getMessage());
+            throw new RuntimeException("Could not save generated files", e);
+        } finally {
+            collectionLock.readLock().unlock();
+        }
 
-            // 2. Write Files
-            for (GenerateResponse.GeneratedFile file : files) {
-                Path filePath = projectDirPath.resolve(file.getPath());
+        eventPublisher.publishEvent(new ProjectFilesSavedEvent(projectId));
+    }
 
-                // Ensure parent directories for the file exist (nested paths)
-                Files.createDirectories(filePath.getParent());
+    public Optional<ProjectVersionsResponse> listVersions(String projectId) {
+        return readRef(projectId).map(ref -> toVersionsResponse(projectId, ref));
+    }
 
-                Files.writeString(filePath, file.getContent());
-                logger.info("Saved: {}/{}", BASE_FOLDER, projectId + "/" + file.getPath());
+    /**
+     * Makes an earlier version current again. Nothing is copied; the ref just
+     * points at that version's manifest.
+     */
+    public Optional<ProjectVersionsResponse> rollback(String projectId, int version) {
+        ProjectRef ref;
+        Lock lock = projectLocks.lockFor(projectId);
+        collectionLock.readLock().lock();
+        lock.lock();
+        try {
+            Optional<ProjectRef> existing = readRef(projectId).map(r -> warm(projectId, r));
+            if (existing.isEmpty() || existing.get().version(version).isEmpty()) {
+                return Optional.empty();
+            }
+            ref = existing.get().withCurrent(version);
+            writeRef(projectId, ref);
+        } finally {
+            lock.unlock();
+            collectionLock.readLock().unlock();
+        }
+
+        logger.info("Rolled back project {} to version {}", projectId, version);
+        eventPublisher.publishEvent(new ProjectFilesSavedEvent(projectId));
+        return Optional.of(toVersionsResponse(projectId, ref));
+    }
+
+    /**
+     * Moves the current version of the project into a single compressed
+     * archive blob and drops its history. A legacy project directory is
+     * archived into the blob store and removed. Returns false if the project
+     * does not exist or is already cold. The old blobs are left to garbage
+     * collection.
+     */
+    public boolean archiveProject(String projectId) {
+        Lock lock = projectLocks.lockFor(projectId);
+        collectionLock.readLock().lock();
+        lock.lock();
+        try {
+            Optional<ProjectRef> existing = readRef(projectId);
+            if (existing.isEmpty()) {
+                if (!archiveLegacyProject(projectId)) {
+                    return false;
+                }
+            } else if (existing.get().isCold()) {
+                return false;
+            } else {
+                List<GenerateResponse.GeneratedFile> files = loadFiles(
+                        readManifest(existing.get().currentVersion().manifest()));
+                String archiveHash = put(compress(objectMapper.writeValueAsBytes(files)));
+                writeRef(projectId, existing.get().cold(archiveHash));
+                logger.info("Archived project {} as {}", projectId, archiveHash);
             }
         } catch (IOException e) {
-            logger.error("Failed to save project files for projectId {}: {}", projectId, e.getMessage());
-            throw new RuntimeException("Could not save generated files", e);
+            throw new RuntimeException("Could not archive project " + projectId, e);
+        } finally {
+            lock.unlock();
+            collectionLock.readLock().unlock();
+        }
+
+        eventPublisher.publishEvent(new ProjectFilesSavedEvent(projectId));
+        return true;
+    }
+
+    /**
+     * Removes the project's ref, or its legacy directory; blobs are left to
+     * garbage collection.
+     */
+    public boolean deleteProject(String projectId) {
+        Lock lock = projectLocks.lockFor(projectId);
+        lock.lock();
+        try {
+            if (refStore.read(projectId).isPresent()) {
+                refStore.delete(projectId);
+            } else if (!deleteLegacyProject(projectId)) {
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        logger.info("Deleted project {}", projectId);
+        eventPublisher.publishEvent(new ProjectFilesSavedEvent(projectId));
+        return true;
+    }
+
+    /**
+     * Summary of every project in the ref store and every legacy project
+     * directory. {@code bytes} is the logical size before deduplication: see
+     * {@link ProjectRef} for a warm project, the archive of a cold one, or
+     * the files of a legacy one.
+     */
+    public List<StoredProject> listProjects() {
+        List<StoredProject> projects = new ArrayList<>();
+        for (String projectId : refStore.projectIds()) {
+            try {
+                storedProject(projectId).ifPresent(projects::add);
+            } catch (RuntimeException e) {
+                logger.warn("Skipping unreadable project {}: {}", projectId, e.getMessage());
+            }
+        }
+        for (String projectId : legacyProjectIds()) {
+            try {
+                legacyStoredProject(projectId).ifPresent(projects::add);
+            } catch (RuntimeException e) {
+                logger.warn("Skipping unreadable legacy project {}: {}", projectId, e.getMessage());
+            }
+        }
+        return projects;
+    }
+
+    public Optional<StoredProject> storedProject(String projectId) {
+        Optional<ProjectRef> existing = readRef(projectId);
+        if (existing.isEmpty()) {
+            return legacyStoredProject(projectId);
+        }
+        ProjectRef ref = existing.get();
+        Instant updatedAt = ref.versions().stream()
+                .map(ProjectRef.Version::createdAt)
+                .max(Instant::compareTo)
+                .orElse(Instant.EPOCH);
+        long bytes;
+        if (ref.isCold()) {
+            bytes = blobStore.sizeOf(ref.archive());
+        } else if (ref.bytes() != null) {
+            bytes = ref.bytes();
+        } else {
+            // Refs saved before the size was kept in them
+            bytes = ref.versions().stream()
+                    .flatMap(version -> readManifest(version.manifest()).files().stream())
+                    .collect(Collectors.toMap(ProjectManifest.Entry::blob, ProjectManifest.Entry::size,
+                            (a, b) -> a))
+                    .values().stream().mapToLong(Long::longValue).sum();
+        }
+        return Optional.of(new StoredProject(projectId, ref.isCold(), bytes, updatedAt));
+    }
+
+    /**
+     * Deletes every blob not reachable from a project ref and returns how
+     * many were removed. Returns 0 straight away if a collection is already
+     * running.
+     * <p>
+     * Writers are only held back briefly. Taking the write lock once waits
+     * for writers in flight, whose refs the mark then sees; writers after
+     * that record every blob they write, reused or new, and those are never
+     * swept. The mark runs without the lock. The sweep takes it again in
+     * small batches, so a writer is never between writing a blob and
+     * recording it while a batch decides.
+     */
+    public int collectGarbage() {
+        if (!collectionRunLock.tryLock()) {
+            logger.info("Garbage collection already running");
+            return 0;
         }
+        try {
+            Set<String> written = ConcurrentHashMap.newKeySet();
+            collectionLock.writeLock().lock();
+            writtenDuringCollection = written;
+            collectionLock.writeLock().unlock();
+
+            Set<String> live = markLive();
+            List<String> garbage = blobStore.hashes().stream().filter(hash -> !live.contains(hash)).toList();
+            int removed = 0;
+            for (int start = 0; start < garbage.size(); start += SWEEP_BATCH) {
+                collectionLock.writeLock().lock();
+                try {
+                    for (String hash : garbage.subList(start, Math.min(start + SWEEP_BATCH, garbage.size()))) {
+                        if (!written.contains(hash)) {
+                            blobStore.remove(hash);
+                            removed++;
+                        }
+                    }
+                } finally {
+                    collectionLock.writeLock().unlock();
+                }
+            }
+            if (removed > 0) {
+                logger.info("Garbage collection removed {} blobs", removed);
+            }
+            return removed;
+        } finally {
+            writtenDuringCollection = null;
+            collectionRunLock.unlock();
+        }
+    }
+
+    // An unreadable ref or manifest fails the whole collection, as its blobs would look unreachable
+    private Set<String> markLive() {
+        Set<String> live = new HashSet<>();
+        for (String projectId : refStore.projectIds()) {
+            Optional<ProjectRef> ref = readRef(projectId);
+            if (ref.isEmpty()) {
+                continue;
+            }
+            if (ref.get().isCold()) {
+                live.add(ref.get().archive());
+            }
+            for (ProjectRef.Version version : ref.get().versions()) {
+                if (version.manifest() != null && live.add(version.manifest())) {
+                    for (ProjectManifest.Entry entry : readManifest(version.manifest()).files()) {
+                        live.add(entry.blob());
+                        if (entry.minified() != null) {
+                            live.add(entry.minified());
+                        }
+                        if (entry.gzip() != null) {
+                            live.add(entry.gzip());
+                        }
+                    }
+                }
+            }
+        }
+        return live;
     }
 
     public Path getProjectRoot(String projectId) {
-        return Paths.get(BASE_FOLDER, projectId);
+        return properties.getBaseFolder().resolve(projectId);
     }
 
     public Path getBaseFolder() {
-        return Paths.get(BASE_FOLDER);
+        return properties.getBaseFolder();
+    }
+
+    /**
+     * Reads a single project file of the given version, or of the current one
+     * when {@code version} is null. Returns empty if the project, version or
+     * file does not exist or the path escapes the project folder.
+     */
+    public Optional<ByteBuffer> readProjectFile(String projectId, Integer version, String relativePath) {
+        Optional<ProjectRef> ref = readWarmRef(projectId);
+        if (ref.isPresent()) {
+            return resolveManifest(ref.get(), version)
+                    .flatMap(manifest -> manifest.find(relativePath))
+                    .map(entry -> readBlobBuffer(entry.blob()));
+        }
+        return version == null
+                ? readLegacyFile(projectId, relativePath).map(ByteBuffer::wrap)
+                : Optional.empty();
+    }
+
+    /**
+     * The bytes to serve for a project file: its minified copy when one was
+     * stored, with the stored gzip of those bytes if any. Projects saved
+     * without variants serve the original file.
+     */
+    public Optional<StoredAsset> readProjectAsset(String projectId, Integer version, String relativePath) {
+        Optional<ProjectRef> ref = readWarmRef(projectId);
+        if (ref.isPresent()) {
+            return resolveManifest(ref.get(), version)
+                    .flatMap(manifest -> manifest.find(relativePath))
+                    .map(entry -> new StoredAsset(
+                            readBlobBuffer(entry.minified() != null ? entry.minified() : entry.blob()),
+                            entry.gzip() == null ? null : readBlobBuffer(entry.gzip())));
+        }
+        return version == null
+                ? readLegacyFile(projectId, relativePath)
+                        .map(content -> new StoredAsset(ByteBuffer.wrap(content), null))
+                : Optional.empty();
     }
 
     public List<GenerateResponse.GeneratedFile> loadProjectFiles(String projectId) {
-        Path projectRoot = getProjectRoot(projectId);
-        
-        if (!Files.exists(projectRoot)) {
-            logger.warn("Project directory does not exist: {}", projectRoot);
+        return loadProjectFiles(projectId, null);
+    }
+
+    public List<GenerateResponse.GeneratedFile> loadProjectFiles(String projectId, Integer version) {
+        Optional<ProjectRef> ref = readWarmRef(projectId);
+        if (ref.isEmpty()) {
+            return version == null ? loadLegacyFiles(projectId) : Collections.emptyList();
+        }
+
+        return resolveManifest(ref.get(), version)
+                .map(this::loadFiles)
+                .orElse(Collections.emptyList());
+    }
+
+    private List<GenerateResponse.GeneratedFile> loadFiles(ProjectManifest manifest) {
+        List<GenerateResponse.GeneratedFile> files = new ArrayList<>(manifest.files().size());
+        for (ProjectManifest.Entry entry : manifest.files()) {
+            files.add(new GenerateResponse.GeneratedFile(entry.path(),
+                    new String(readBlob(entry.blob()), StandardCharsets.UTF_8)));
+        }
+        return files;
+    }
+
+    private Optional<ProjectRef> readWarmRef(String projectId) {
+        Optional<ProjectRef> ref = readRef(projectId);
+        if (ref.isEmpty() || !ref.get().isCold()) {
+            return ref;
+        }
+
+        Lock lock = projectLocks.lockFor(projectId);
+        collectionLock.readLock().lock();
+        lock.lock();
+        try {
+            return readRef(projectId).map(current -> warm(projectId, current));
+        } finally {
+            lock.unlock();
+            collectionLock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the collection read lock
+    private List<ProjectManifest.Entry> putFiles(List<GenerateResponse.GeneratedFile> files,
+            Map<String, AssetOptimizer.Variants> variants) {
+        List<ProjectManifest.Entry> entries = new ArrayList<>(files.size());
+        for (GenerateResponse.GeneratedFile file : files) {
+            byte[] content = file.getContent().getBytes(StandardCharsets.UTF_8);
+            AssetOptimizer.Variants fileVariants = variants.get(file.getPath());
+            entries.add(new ProjectManifest.Entry(file.getPath(), put(content), content.length,
+                    fileVariants == null ? null : putIfPresent(fileVariants.minified()),
+                    fileVariants == null ? null : putIfPresent(fileVariants.gzipped())));
+        }
+        return entries;
+    }
+
+    // Caller holds the project lock and the collection read lock
+    private ProjectRef warm(String projectId, ProjectRef ref) {
+        if (!ref.isCold()) {
+            return ref;
+        }
+        try {
+            List<GenerateResponse.GeneratedFile> files = objectMapper.readValue(
+                    decompress(readBlob(ref.archive())), ARCHIVE_TYPE);
+            // Archives keep only the files as written; the served copies are rebuilt
+            List<ProjectManifest.Entry> entries = putFiles(files, assetOptimizer.optimize(files));
+            String manifestHash = put(objectMapper.writeValueAsBytes(new ProjectManifest(entries)));
+            ProjectRef warmed = ref.warm(manifestHash, totalBytes(entries));
+            writeRef(projectId, warmed);
+            logger.info("Restored archived project {}", projectId);
+            return warmed;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not restore archived project " + projectId, e);
+        }
+    }
+
+    private static byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] content) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    private Optional<ProjectRef> readRef(String projectId) {
+        return refStore.read(projectId).map(bytes -> {
+            try {
+                return objectMapper.readValue(bytes, ProjectRef.class);
+            } catch (IOException e) {
+                logger.error("Failed to read ref for projectId {}: {}", projectId, e.getMessage());
+                throw new RuntimeException("Could not read project ref", e);
+            }
+        });
+    }
+
+    private void writeRef(String projectId, ProjectRef ref) {
+        try {
+            refStore.write(projectId, objectMapper.writeValueAsBytes(ref));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write project ref", e);
+        }
+    }
+
+    private Optional<ProjectManifest> resolveManifest(ProjectRef ref, Integer version) {
+        Optional<ProjectRef.Version> resolved = version == null
+                ? Optional.of(ref.currentVersion())
+                : ref.version(version);
+        return resolved.map(v -> readManifest(v.manifest()));
+    }
+
+    private ProjectManifest readManifest(String manifestHash) {
+        try {
+            return objectMapper.readValue(readBlob(manifestHash), ProjectManifest.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read project manifest " + manifestHash, e);
+        }
+    }
+
+    private static List<String> changedPaths(ProjectManifest previous, ProjectManifest next) {
+        Set<String> changed = new TreeSet<>();
+        for (ProjectManifest.Entry entry : next.files()) {
+            Optional<ProjectManifest.Entry> before = previous.find(entry.path());
+            if (before.isEmpty() || !before.get().blob().equals(entry.blob())) {
+                changed.add(entry.path());
+            }
+        }
+        for (ProjectManifest.Entry entry : previous.files()) {
+            if (next.find(entry.path()).isEmpty()) {
+                changed.add(entry.path());
+            }
+        }
+        return List.copyOf(changed);
+    }
+
+    public record StoredProject(String projectId, boolean cold, long bytes, Instant updatedAt) {
+    }
+
+    /** {@code gzipped} is null when no compressed copy was stored. */
+    public record StoredAsset(ByteBuffer content, ByteBuffer gzipped) {
+    }
+
+    private static ProjectVersionsResponse toVersionsResponse(String projectId, ProjectRef ref) {
+        return new ProjectVersionsResponse(projectId, ref.current(), ref.versions().stream()
+                .map(v -> new ProjectVersionsResponse.VersionInfo(v.number(), v.createdAt(), v.changedPaths()))
+                .toList());
+    }
+
+    // Every blob write goes through here; caller holds the collection read lock
+    private String put(byte[] content) {
+        String hash = blobStore.put(content);
+        Set<String> written = writtenDuringCollection;
+        if (written != null) {
+            written.add(hash);
+        }
+        return hash;
+    }
+
+    private String putIfPresent(byte[] content) {
+        return content == null ? null : put(content);
+    }
+
+    private static long totalBytes(List<ProjectManifest.Entry> entries) {
+        return entries.stream().mapToLong(ProjectManifest.Entry::size).sum();
+    }
+
+    private ByteBuffer readBlobBuffer(String hash) {
+        return blobStore.readBuffer(hash)
+                .orElseThrow(() -> new RuntimeException("Missing blob " + hash));
+    }
+
+    private byte[] readBlob(String hash) {
+        return blobStore.get(hash)
+                .orElseThrow(() -> new RuntimeException("Missing blob " + hash));
+    }
+
+    // Legacy projects were always stored under their UUID; anything else could
+    // name one of the storage folders
+    private Optional<Path> legacyProjectRoot(String projectId) {
+        try {
+            UUID.fromString(projectId);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Path projectRoot = getProjectRoot(projectId).toAbsolutePath().normalize();
+        return Files.isDirectory(projectRoot) ? Optional.of(projectRoot) : Optional.empty();
+    }
+
+    private List<String> legacyProjectIds() {
+        Path baseFolder = properties.getBaseFolder();
+        if (!Files.isDirectory(baseFolder)) {
+            return List.of();
+        }
+        try (Stream<Path> listing = Files.list(baseFolder)) {
+            return listing.map(path -> path.getFileName().toString())
+                    .filter(projectId -> legacyProjectRoot(projectId).isPresent())
+                    .filter(projectId -> refStore.read(projectId).isEmpty())
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list legacy projects in " + baseFolder, e);
+        }
+    }
+
+    private Optional<StoredProject> legacyStoredProject(String projectId) {
+        return legacyProjectRoot(projectId).map(root -> {
+            try (Stream<Path> walk = Files.walk(root)) {
+                long bytes = walk.filter(Files::isRegularFile).mapToLong(FileStorageService::sizeOf).sum();
+                return new StoredProject(projectId, false, bytes, Files.getLastModifiedTime(root).toInstant());
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read legacy project " + projectId, e);
+            }
+        });
+    }
+
+    // Caller holds the project lock and the collection read lock
+    private boolean archiveLegacyProject(String projectId) throws IOException {
+        Optional<Path> root = legacyProjectRoot(projectId);
+        if (root.isEmpty()) {
+            return false;
+        }
+        List<GenerateResponse.GeneratedFile> files = loadLegacyFiles(projectId);
+        String archiveHash = put(compress(objectMapper.writeValueAsBytes(files)));
+        writeRef(projectId, ProjectRef.archived(archiveHash,
+                files.stream().map(GenerateResponse.GeneratedFile::getPath).toList(),
+                Files.getLastModifiedTime(root.get()).toInstant()));
+        FileSystemUtils.deleteRecursively(root.get());
+        logger.info("Archived legacy project {} as {}", projectId, archiveHash);
+        return true;
+    }
+
+    private boolean deleteLegacyProject(String projectId) {
+        Optional<Path> root = legacyProjectRoot(projectId);
+        if (root.isEmpty()) {
+            return false;
+        }
+        try {
+            return FileSystemUtils.deleteRecursively(root.get());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not delete legacy project " + projectId, e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Optional<byte[]> readLegacyFile(String projectId, String relativePath) {
+        Optional<Path> projectRoot = legacyProjectRoot(projectId);
+        if (projectRoot.isEmpty()) {
+            return Optional.empty();
+        }
+        Path file = projectRoot.get().resolve(relativePath).normalize();
+        if (!file.startsWith(projectRoot.get()) || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.error("Failed to read {} for projectId {}: {}", relativePath, projectId, e.getMessage());
+            throw new RuntimeException("Could not read project file", e);
+        }
+    }
+
+    private List<GenerateResponse.GeneratedFile> loadLegacyFiles(String projectId) {
+        Optional<Path> legacyRoot = legacyProjectRoot(projectId);
+
+        if (legacyRoot.isEmpty()) {
+            logger.warn("Project does not exist: {}", projectId);
             return Collections.emptyList();
         }
-        
+
+        Path projectRoot = legacyRoot.get();
         List<GenerateResponse.GeneratedFile> files = new ArrayList<>();
-        
+
         try {
             Files.walkFileTree(projectRoot, new SimpleFileVisitor<Path>() {
                 @Override
@@ -82,7 +714,7 @@ public class FileStorageService {
             logger.error("Failed to load project files for projectId {}: {}", projectId, e.getMessage());
             throw new RuntimeException("Could not load project files", e);
         }
-        
+
         return files;
     }
 }
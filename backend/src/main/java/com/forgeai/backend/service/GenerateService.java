@@ -1,331 +1,558 @@
 package com.forgeai.backend.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.forgeai.backend.client.OpenRouterClient;
+import com.forgeai.backend.client.OpenRouterOperation;
+import com.forgeai.backend.client.UsageCollector;
+import com.forgeai.backend.config.EditProperties;
+import com.forgeai.backend.config.GenerationProperties;
+import com.forgeai.backend.config.RepairProperties;
+import com.forgeai.backend.config.RouterProperties;
 import com.forgeai.backend.dto.GenerateRequest;
 import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.GenerateStreamEvent;
+import com.forgeai.backend.dto.ai.DesignSpec;
+import com.forgeai.backend.dto.ai.ProjectPatch;
+import com.forgeai.backend.dto.ai.Prompt;
+import com.forgeai.backend.util.GeneratedFilesStreamParser;
+import com.forgeai.backend.util.JsonRepair;
+import com.forgeai.backend.util.PatchApplier;
+import com.forgeai.backend.util.ProjectConsistency;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class GenerateService {
 
     private static final Logger logger = LoggerFactory.getLogger(GenerateService.class);
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+    private static final List<String> REQUIRED_FILES = List.of("index.html", "styles.css", "script.js");
+    private static final String GENERATE = PipelineMetrics.tag(OpenRouterOperation.GENERATE);
+    private static final String EDIT = PipelineMetrics.tag(OpenRouterOperation.EDIT);
+    // Accepts the defects that leave the structure unambiguous while streaming.
+    // Invalid escapes are left to JsonRepair, which keeps the backslash (\d in a regex).
+    private static final JsonFactory LENIENT_JSON = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .build();
     private final ObjectMapper objectMapper;
-    private final OpenRouterClient openRouterClient;
+    private final CompletionService completionService;
+    private final PromptTemplates promptTemplates;
+    private final GenerationCache generationCache;
+    private final GenerationProperties generationProperties;
+    private final EditProperties editProperties;
+    private final RepairProperties repairProperties;
+    private final RouterProperties routerProperties;
     private final FileStorageService fileStorageService;
-    private final ZipService zipService;
+    private final AssetOptimizer assetOptimizer;
+    private final ProjectAccessTracker accessTracker;
+    private final PipelineMetrics metrics;
+    private final CaptureService captureService;
+    private final RateLimitService rateLimitService;
+    private final Scheduler blockingScheduler;
 
-    public GenerateService(ObjectMapper objectMapper, OpenRouterClient openRouterClient,
-            FileStorageService fileStorageService, ZipService zipService) {
+    public GenerateService(ObjectMapper objectMapper, CompletionService completionService,
+            PromptTemplates promptTemplates, GenerationCache generationCache,
+            GenerationProperties generationProperties, EditProperties editProperties,
+            RepairProperties repairProperties, RouterProperties routerProperties,
+            FileStorageService fileStorageService, AssetOptimizer assetOptimizer,
+            ProjectAccessTracker accessTracker, PipelineMetrics metrics, CaptureService captureService,
+            RateLimitService rateLimitService, Scheduler blockingScheduler) {
         this.objectMapper = objectMapper;
-        this.openRouterClient = openRouterClient;
+        this.completionService = completionService;
+        this.promptTemplates = promptTemplates;
+        this.generationCache = generationCache;
+        this.generationProperties = generationProperties;
+        this.editProperties = editProperties;
+        this.repairProperties = repairProperties;
+        this.routerProperties = routerProperties;
         this.fileStorageService = fileStorageService;
-        this.zipService = zipService;
+        this.assetOptimizer = assetOptimizer;
+        this.accessTracker = accessTracker;
+        this.metrics = metrics;
+        this.captureService = captureService;
+        this.rateLimitService = rateLimitService;
+        this.blockingScheduler = blockingScheduler;
     }
 
-    public GenerateResponse generateProject(GenerateRequest request) {
-        String prompt = buildPrompt(request);
+    public GenerateResponse generateProject(GenerateRequest request, Caller caller) {
+        return generateProjectAsync(request, caller).block();
+    }
+
+    public Mono<GenerateResponse> generateProjectAsync(GenerateRequest request) {
+        return generateProjectAsync(request, Caller.current());
+    }
+
+    public Mono<GenerateResponse> generateProjectAsync(GenerateRequest request, Caller caller) {
         String projectId = UUID.randomUUID().toString();
+        UsageCollector usage = new UsageCollector();
+        CaptureBuffer capture = captureService.buffer(projectId, OpenRouterOperation.GENERATE);
+
+        Mono<List<GenerateResponse.GeneratedFile>> generated = generatedFiles(request)
+                .contextWrite(usage::attach)
+                .contextWrite(capture::attach)
+                .contextWrite(caller::attach)
+                .collectList()
+                .flatMap(files -> publish(projectId, files, OpenRouterOperation.GENERATE));
+        return metrics.time(GENERATE, PipelineMetrics.Stage.TOTAL, generated)
+                .map(files -> new GenerateResponse(
+                        true,
+                        "Project generated successfully",
+                        projectId,
+                        files))
+                .onErrorResume(e -> {
+                    logger.error("PRODUCTION ERROR: Failed to generate or parse project. Error: {}", e.getMessage());
+                    return Mono.just(new GenerateResponse(false, "Failed to generate project: " + e.getMessage(),
+                            null, Collections.emptyList()));
+                })
+                .map(response -> finish(response, usage, capture, caller));
+    }
+
+    public GenerateResponse editProject(String projectId, String userInstruction, Caller caller) {
+        return editProjectAsync(projectId, userInstruction, caller).block();
+    }
+
+    public Mono<GenerateResponse> editProjectAsync(String projectId, String userInstruction) {
+        return editProjectAsync(projectId, userInstruction, Caller.current());
+    }
+
+    public Mono<GenerateResponse> editProjectAsync(String projectId, String userInstruction, Caller caller) {
+        UsageCollector usage = new UsageCollector();
+        CaptureBuffer capture = captureService.buffer(projectId, OpenRouterOperation.EDIT);
+
+        Mono<List<GenerateResponse.GeneratedFile>> edited = editedFiles(projectId, userInstruction)
+                .contextWrite(usage::attach)
+                .contextWrite(capture::attach)
+                .contextWrite(caller::attach)
+                .collectList()
+                .flatMap(files -> publish(projectId, files, OpenRouterOperation.EDIT));
+        return metrics.time(EDIT, PipelineMetrics.Stage.TOTAL, edited)
+                .map(files -> new GenerateResponse(
+                        true,
+                        "Project updated successfully",
+                        projectId,
+                        files))
+                .onErrorResume(e -> {
+                    logger.error("PRODUCTION ERROR: Failed to edit project. Error: {}", e.getMessage());
+                    return Mono.just(new GenerateResponse(false, "Failed to edit project: " + e.getMessage(),
+                            projectId, Collections.emptyList()));
+                })
+                .map(response -> finish(response, usage, capture, caller));
+    }
+
+    public Flux<GenerateStreamEvent> streamProject(GenerateRequest request) {
+        String projectId = UUID.randomUUID().toString();
+        return streamFiles(projectId, OpenRouterOperation.GENERATE, Caller.current(), generatedFiles(request),
+                "Project generated successfully", "Failed to generate project: ");
+    }
+
+    public Flux<GenerateStreamEvent> streamEditProject(String projectId, String userInstruction) {
+        return streamFiles(projectId, OpenRouterOperation.EDIT, Caller.current(),
+                editedFiles(projectId, userInstruction), "Project updated successfully", "Failed to edit project: ");
+    }
+
+    private Flux<GenerateStreamEvent> streamFiles(String projectId, OpenRouterOperation operation, Caller caller,
+            Flux<GenerateResponse.GeneratedFile> generated, String successMessage, String failurePrefix) {
+        Flux<GenerateStreamEvent> stream = Flux.defer(() -> {
+            List<GenerateResponse.GeneratedFile> files = new ArrayList<>();
+            UsageCollector usage = new UsageCollector();
+            CaptureBuffer capture = captureService.buffer(projectId, operation);
+
+            Flux<GenerateStreamEvent> fileEvents = generated
+                    .contextWrite(usage::attach)
+                    .contextWrite(capture::attach)
+                    .contextWrite(caller::attach)
+                    .doOnNext(files::add)
+                    .map(GenerateStreamEvent::file);
+
+            // Periodic progress keeps the connection alive until the files arrive
+            Flux<GenerateStreamEvent> events = fileEvents.publish(shared -> Flux.merge(
+                    shared,
+                    Flux.interval(PROGRESS_INTERVAL)
+                            .map(tick -> GenerateStreamEvent.progress("Generating project files", files.size()))
+                            .takeUntilOther(shared.then())));
 
+            Mono<GenerateStreamEvent> completion = Mono.defer(() -> publish(projectId, files, operation))
+                    .map(saved -> GenerateStreamEvent.complete(projectId, successMessage, usage.calls()));
+
+            Flux<GenerateStreamEvent> all = Flux.concat(
+                    Mono.just(GenerateStreamEvent.progress("Generating project files", 0)),
+                    events,
+                    completion);
+            return PipelineMetrics.onTermination(all, outcome -> {
+                captureService.submit(capture, "error".equals(outcome));
+                rateLimitService.settle(caller, usage.calls());
+            });
+        });
+        return metrics.time(PipelineMetrics.tag(operation), PipelineMetrics.Stage.TOTAL, stream).onErrorResume(e -> {
+            logger.error("PRODUCTION ERROR: Streaming generation failed for project {}. Error: {}", projectId,
+                    e.getMessage());
+            return Mono.just(GenerateStreamEvent.error(failurePrefix + e.getMessage()));
+        });
+    }
+
+    // Usage and capture are empty when the files came from the generation cache
+    private GenerateResponse finish(GenerateResponse response, UsageCollector usage, CaptureBuffer capture,
+            Caller caller) {
+        response.setUsage(usage.calls());
+        captureService.submit(capture, !response.isSuccess());
+        rateLimitService.settle(caller, response.getUsage());
+        return response;
+    }
+
+    private Flux<GenerateResponse.GeneratedFile> generatedFiles(GenerateRequest request) {
+        boolean fanOut = generationProperties.getMode() == GenerationProperties.Mode.FAN_OUT;
+        // Any of the configured models may serve the generation
+        String cacheKey = GenerationCache.keyFor(request,
+                String.join(",", routerProperties.modelsFor(OpenRouterOperation.GENERATE))
+                        + (fanOut ? "|fan-out" : ""));
+        return generationCache.getOrCompute(cacheKey, () -> fanOut
+                ? fanOutFiles(request)
+                : Mono.fromCallable(() -> promptTemplates.generate(request))
+                        .flatMapMany(prompt -> generateFiles(prompt, OpenRouterOperation.GENERATE)));
+    }
+
+    /**
+     * Fan-out generation: a compact design spec first, then one completion
+     * per file, all in flight at once, so the files take as long as the
+     * slowest one rather than all three in sequence. The first file to fail
+     * cancels the others. Once all have arrived they are checked against
+     * each other and the spec.
+     */
+    private Flux<GenerateResponse.GeneratedFile> fanOutFiles(GenerateRequest request) {
+        return Mono.fromCallable(() -> promptTemplates.spec(request))
+                .flatMap(prompt -> metrics.time(GENERATE, PipelineMetrics.Stage.SPEC,
+                        completionService.complete(prompt, OpenRouterOperation.GENERATE)))
+                .map(this::readSpec)
+                .flatMapMany(spec -> Flux.defer(() -> {
+                    String specJson = writeSpec(spec);
+                    List<GenerateResponse.GeneratedFile> files = new ArrayList<>();
+                    return Flux.merge(REQUIRED_FILES.stream()
+                                    .map(path -> generateFile(request, specJson, path))
+                                    .toList())
+                            .doOnNext(files::add)
+                            .concatWith(Mono.fromRunnable(() -> metrics.time(GENERATE,
+                                    PipelineMetrics.Stage.VALIDATE, () -> checkConsistency(files, spec))));
+                }));
+    }
+
+    private Mono<GenerateResponse.GeneratedFile> generateFile(GenerateRequest request, String spec, String path) {
+        Mono<String> completion = completionService.complete(promptTemplates.file(request, spec, path),
+                OpenRouterOperation.GENERATE);
+        return metrics.time(GENERATE, PipelineMetrics.Stage.UPSTREAM, completion)
+                .map(content -> {
+                    String text = stripFence(content);
+                    if (text.isEmpty()) {
+                        throw invalid(OpenRouterOperation.GENERATE, "missing-field",
+                                "Empty " + path + " in model response");
+                    }
+                    return new GenerateResponse.GeneratedFile(path, text);
+                });
+    }
+
+    private DesignSpec readSpec(String aiResult) {
+        DesignSpec spec;
         try {
-            String aiResult = openRouterClient.generate(prompt);
+            spec = objectMapper.readValue(JsonRepair.repair(aiResult), DesignSpec.class);
+        } catch (JsonProcessingException e) {
+            metrics.parseFailure(GENERATE, "spec");
+            throw new RuntimeException("Invalid design spec JSON in model response: " + e.getOriginalMessage(), e);
+        }
+        if (spec.sections() == null || spec.sections().isEmpty()) {
+            metrics.parseFailure(GENERATE, "spec");
+            throw new RuntimeException("Design spec in model response has no sections");
+        }
+        return spec;
+    }
+
+    private String writeSpec(DesignSpec spec) {
+        try {
+            return objectMapper.writeValueAsString(spec);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize design spec", e);
+        }
+    }
+
+    private void checkConsistency(List<GenerateResponse.GeneratedFile> files, DesignSpec spec) {
+        validateFiles(files, OpenRouterOperation.GENERATE);
+        List<String> problems = ProjectConsistency.problems(files, spec);
+        if (!problems.isEmpty()) {
+            throw invalid(OpenRouterOperation.GENERATE, "cross-file",
+                    "Generated files do not match each other: " + String.join("; ", problems));
+        }
+    }
 
-            logger.info("===== RAW AI RESPONSE START =====");
-            logger.info(aiResult);
-            logger.info("===== RAW AI RESPONSE END =====");
+    // The file prompt asks for raw content, but models still fence it at times
+    private static String stripFence(String content) {
+        String text = content.strip();
+        if (!text.startsWith("```")) {
+            return text;
+        }
+        int firstLine = text.indexOf('\n');
+        text = firstLine < 0 ? "" : text.substring(firstLine + 1);
+        if (text.endsWith("```")) {
+            text = text.substring(0, text.length() - 3);
+        }
+        return text.strip();
+    }
 
-            String cleanedJson = cleanAiJson(aiResult);
+    private Flux<GenerateResponse.GeneratedFile> editedFiles(String projectId, String userInstruction) {
+        return Mono.fromCallable(() -> metrics.time(EDIT, PipelineMetrics.Stage.LOAD,
+                        () -> fileStorageService.loadProjectFiles(projectId)))
+                .subscribeOn(blockingScheduler)
+                .flatMapMany(currentFiles -> {
+                    Flux<GenerateResponse.GeneratedFile> fullEdit = Flux.defer(() -> generateFiles(
+                            promptTemplates.edit(currentFiles, userInstruction), OpenRouterOperation.EDIT));
+                    if (editProperties.getMode() != EditProperties.Mode.PATCH) {
+                        return fullEdit;
+                    }
 
-            GeneratedFilesWrapper wrapper = objectMapper.readValue(cleanedJson, GeneratedFilesWrapper.class);
+                    return patchFiles(projectId, currentFiles, userInstruction, fullEdit);
+                });
+    }
 
-            // VALIDATE: Must have exactly 3 files: index.html, styles.css, script.js
-            validateFiles(wrapper.files());
+    /**
+     * Asks the model for search/replace edits only and applies them to the
+     * current files. The patched project must pass the same validation as a
+     * full regeneration; if the edits do not apply cleanly, all files are
+     * regenerated instead. Upstream failures are not retried as a full edit.
+     */
+    private Flux<GenerateResponse.GeneratedFile> patchFiles(String projectId,
+            List<GenerateResponse.GeneratedFile> currentFiles, String userInstruction,
+            Flux<GenerateResponse.GeneratedFile> fullEdit) {
+        Mono<String> completion = completionService.complete(promptTemplates.patch(currentFiles, userInstruction),
+                OpenRouterOperation.EDIT);
+        return metrics.time(EDIT, PipelineMetrics.Stage.UPSTREAM, completion)
+                .flatMapMany(aiResult -> Mono.fromCallable(() -> {
+                    List<GenerateResponse.GeneratedFile> patched = metrics.time(EDIT, PipelineMetrics.Stage.PATCH,
+                            () -> PatchApplier.apply(currentFiles, readPatch(aiResult)));
+                    metrics.time(EDIT, PipelineMetrics.Stage.VALIDATE,
+                            () -> validateFiles(patched, OpenRouterOperation.EDIT));
+                    return patched;
+                }).flatMapIterable(files -> files).onErrorResume(e -> {
+                    logger.warn("Patch edit failed for project {}, regenerating all files: {}", projectId,
+                            e.getMessage());
+                    return fullEdit;
+                }));
+    }
 
-            // SAVE FILES TO DISK
-            fileStorageService.saveProjectFiles(projectId, wrapper.files());
-
-            // ZIP PROJECT
-            zipService.zipProject(projectId);
-
-            return new GenerateResponse(
-                    true,
-                    "Project generated successfully",
-                    projectId,
-                    wrapper.files());
-        } catch (Exception e) {
-            logger.error("PRODUCTION ERROR: Failed to generate or parse project. Error: {}", e.getMessage());
-            return new GenerateResponse(false, "Failed to generate project: " + e.getMessage(), null,
-                    Collections.emptyList());
+    private ProjectPatch readPatch(String aiResult) {
+        int start = aiResult.indexOf('{');
+        int end = aiResult.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            metrics.parseFailure(EDIT, "patch");
+            throw new RuntimeException("No JSON object in patch response");
+        }
+        try {
+            return objectMapper.readValue(aiResult.substring(start, end + 1), ProjectPatch.class);
+        } catch (JsonProcessingException e) {
+            metrics.parseFailure(EDIT, "patch");
+            throw new RuntimeException("Invalid patch JSON in model response: " + e.getOriginalMessage(), e);
         }
     }
 
-    private String cleanAiJson(String raw) {
-        if (raw == null)
-            return "{}";
-
-        String cleaned = raw.trim();
-
-        // Remove markdown code blocks if present
-        if (cleaned.contains("```")) {
-            // Specifically look for ```json ... ```
-            if (cleaned.contains("```json")) {
-                int start = cleaned.indexOf("```json") + 7;
-                int end = cleaned.lastIndexOf("```");
-                if (end > start) {
-                    cleaned = cleaned.substring(start, end).trim();
-                }
-            } else {
-                // Handle generic ``` ... ```
-                int start = cleaned.indexOf("```") + 3;
-                int end = cleaned.lastIndexOf("```");
-                if (end > start) {
-                    cleaned = cleaned.substring(start, end).trim();
-                }
+    /**
+     * Parses the completion as it arrives. Each file is validated as soon as
+     * it is complete, so a bad file cancels the upstream call, and the full
+     * set is validated before the stream completes. Parse and validation
+     * time is summed over the chunks and recorded once per completion.
+     */
+    private Flux<GenerateResponse.GeneratedFile> generateFiles(Prompt prompt, OpenRouterOperation operation) {
+        return Flux.defer(() -> generateFiles(prompt, prompt, operation, new ArrayList<>(), 0));
+    }
+
+    /**
+     * Malformed JSON does not fail the completion: the rest of it is
+     * buffered and repaired locally once it ends. A completion cut off before
+     * all files arrived is followed by a continuation that asks only for the
+     * missing files, up to {@code forgeai.repair.max-continuations} times.
+     */
+    private Flux<GenerateResponse.GeneratedFile> generateFiles(Prompt original, Prompt prompt,
+            OpenRouterOperation operation, List<GenerateResponse.GeneratedFile> seen, int continuation) {
+        String op = PipelineMetrics.tag(operation);
+        return Flux.defer(() -> {
+            FilesCompletion completion = new FilesCompletion(op);
+            PipelineMetrics.SteppedTimer parseTimer = metrics.steppedTimer(op, PipelineMetrics.Stage.PARSE);
+            PipelineMetrics.SteppedTimer validateTimer = metrics.steppedTimer(op, PipelineMetrics.Stage.VALIDATE);
+
+            Flux<GenerateResponse.GeneratedFile> streamed = metrics.time(op, PipelineMetrics.Stage.UPSTREAM,
+                    completionService.chunks(prompt, operation))
+                    .concatMapIterable(chunk -> parseTimer.time(
+                            () -> countParseFailure(op, () -> completion.feed(chunk))))
+                    // A continuation may repeat files it was told were complete
+                    .filter(file -> continuation == 0 || isMissing(file, seen));
+            Flux<GenerateResponse.GeneratedFile> recovered = Flux.defer(() -> Flux.fromIterable(
+                    parseTimer.time(() -> countParseFailure(op, completion::finish))))
+                    .filter(file -> isMissing(file, seen));
+
+            Flux<GenerateResponse.GeneratedFile> files = streamed.concatWith(recovered)
+                    .doOnNext(file -> validateTimer.time(() -> {
+                        validateFile(file, seen, operation);
+                        seen.add(file);
+                    }))
+                    .concatWith(Flux.defer(() -> completion.isTruncated()
+                            ? continueFiles(original, operation, seen, continuation)
+                            : Flux.empty()));
+            if (continuation == 0) {
+                files = files.concatWith(Mono.fromRunnable(
+                        () -> validateTimer.time(() -> validateFiles(seen, operation))));
             }
+            return PipelineMetrics.onTermination(files, outcome -> {
+                parseTimer.record(outcome);
+                validateTimer.record(outcome);
+            });
+        });
+    }
+
+    private Flux<GenerateResponse.GeneratedFile> continueFiles(Prompt original, OpenRouterOperation operation,
+            List<GenerateResponse.GeneratedFile> seen, int continuation) {
+        String op = PipelineMetrics.tag(operation);
+        List<String> done = seen.stream().map(GenerateResponse.GeneratedFile::getPath).toList();
+        List<String> missing = REQUIRED_FILES.stream()
+                .filter(path -> done.stream().noneMatch(path::equalsIgnoreCase))
+                .toList();
+        if (missing.isEmpty()) {
+            // Only the closing brackets were cut off
+            return Flux.empty();
+        }
+        if (continuation >= repairProperties.getMaxContinuations()) {
+            metrics.parseFailure(op, "files");
+            return Flux.error(new RuntimeException("Incomplete JSON in model response, missing " + missing));
         }
+        metrics.continuation(op);
+        logger.info("Completion cut off before {}, requesting the missing files", missing);
+        return generateFiles(original, promptTemplates.continuation(original, done, missing), operation, seen,
+                continuation + 1);
+    }
 
-        // If it still contains markdown characters or text outside the JSON, we can't
-        // easily fix it here
-        // without a more complex regex, but this handles the most common case.
-        return cleaned;
+    private static boolean isMissing(GenerateResponse.GeneratedFile file, List<GenerateResponse.GeneratedFile> seen) {
+        return file.getPath() == null || seen.stream().noneMatch(f -> f.getPath().equalsIgnoreCase(file.getPath()));
     }
 
-    private String buildPrompt(GenerateRequest request) {
-        return String.format(
-                "You are ForgeAI, an expert senior web product designer and frontend architect.\n" +
-                        "\n" +
-                        "You generate complete production-quality websites using:\n" +
-                        "- HTML\n" +
-                        "- CSS\n" +
-                        "- Vanilla JavaScript only\n" +
-                        "\n" +
-                        "📦 OUTPUT FORMAT (MANDATORY JSON)\n" +
-                        "Always respond in this exact format:\n" +
-                        "{\n" +
-                        "  \"files\": [\n" +
-                        "    { \"path\": \"index.html\", \"content\": \"...\" },\n" +
-                        "    { \"path\": \"styles.css\", \"content\": \"...\" },\n" +
-                        "    { \"path\": \"script.js\", \"content\": \"...\" }\n" +
-                        "  ]\n" +
-                        "}\n" +
-                        "\n" +
-                        "No markdown. No explanations. No backticks.\n" +
-                        "\n" +
-                        "🏗️ WEBSITE STRUCTURE (MANDATORY)\n" +
-                        "Every website MUST include:\n" +
-                        "- Sticky header with nav\n" +
-                        "- Hero section with CTA\n" +
-                        "- Features / Services section (3–6 cards)\n" +
-                        "- About section\n" +
-                        "- Benefits / Why Choose Us section\n" +
-                        "- Call-to-action section\n" +
-                        "- Footer with:\n" +
-                        "  - Links\n" +
-                        "  - Copyright\n" +
-                        "  - Text: Built with ForgeAI\n" +
-                        "\n" +
-                        "🎨 DESIGN RULES\n" +
-                        "Must look modern startup / SaaS quality\n" +
-                        "Must include:\n" +
-                        "- Cards\n" +
-                        "- Shadows\n" +
-                        "- Gradients\n" +
-                        "- Hover animations\n" +
-                        "- Scroll animations\n" +
-                        "- Section reveal animations\n" +
-                        "- Fully responsive\n" +
-                        "\n" +
-                        "🧠 CONTENT RULES\n" +
-                        "Use the user's idea as the business theme\n" +
-                        "Write realistic professional marketing content\n" +
-                        "No lorem ipsum\n" +
-                        "No placeholders\n" +
-                        "No \"Hello world\"\n" +
-                        "\n" +
-                        "⚙️ INTERACTIVITY RULES\n" +
-                        "Must include:\n" +
-                        "- Smooth scrolling\n" +
-                        "- Navbar scroll effect\n" +
-                        "- Button hover animations\n" +
-                        "- Section reveal animation\n" +
-                        "- Simple JS animations\n" +
-                        "\n" +
-                        "🧱 TECH RULES\n" +
-                        "❌ No React\n" +
-                        "❌ No Tailwind\n" +
-                        "❌ No Bootstrap\n" +
-                        "❌ No frameworks\n" +
-                        "❌ No external JS or CSS libraries\n" +
-                        "❌ No CDN dependencies\n" +
-                        "\n" +
-                        "🏷️ BRANDING RULE\n" +
-                        "If user asks who you are or who built this:\n" +
-                        "Always say:\n" +
-                        "I am ForgeAI, an AI website builder created by the ForgeAI team.\n" +
-                        "\n" +
-                        "🧨 HARD FAIL CONDITIONS\n" +
-                        "Do NOT return code fences\n" +
-                        "Do NOT return explanations\n" +
-                        "Do NOT return markdown\n" +
-                        "Do NOT return partial files\n" +
-                        "\n" +
-                        "PROJECT DETAILS:\n" +
-                        "Name: %s\n" +
-                        "Description: %s\n" +
-                        "Category: %s\n" +
-                        "Features/Sections: %s\n" +
-                        "\n" +
-                        "Use proper escaping for double quotes and newlines in the JSON content values.",
-                request.getProjectName(),
-                request.getDescription(),
-                request.getCategory(),
-                String.join(", ", request.getSections()));
+    /**
+     * Streams files out of one completion. Once the JSON breaks, the rest is
+     * only buffered, then repaired and parsed in one go when it ends; files
+     * already streamed are parsed again and skipped by the caller.
+     */
+    private final class FilesCompletion {
+        private final String op;
+        private final GeneratedFilesStreamParser parser = new GeneratedFilesStreamParser(LENIENT_JSON);
+        private final StringBuilder raw = new StringBuilder();
+        private boolean broken;
+        private boolean truncated;
+
+        private FilesCompletion(String op) {
+            this.op = op;
+        }
+
+        List<GenerateResponse.GeneratedFile> feed(String chunk) {
+            if (!repairProperties.isEnabled()) {
+                return parser.feed(chunk);
+            }
+            raw.append(chunk);
+            if (broken) {
+                return Collections.emptyList();
+            }
+            try {
+                return parser.feed(chunk);
+            } catch (RuntimeException e) {
+                logger.debug("Malformed JSON in completion, repairing once it ends: {}", e.getMessage());
+                broken = true;
+                return Collections.emptyList();
+            }
+        }
+
+        List<GenerateResponse.GeneratedFile> finish() {
+            if (!repairProperties.isEnabled()) {
+                parser.finish();
+                return Collections.emptyList();
+            }
+            if (!broken) {
+                truncated = !parser.isFinished();
+                return Collections.emptyList();
+            }
+
+            GeneratedFilesStreamParser repaired = new GeneratedFilesStreamParser(LENIENT_JSON);
+            List<GenerateResponse.GeneratedFile> files;
+            try {
+                files = repaired.feed(JsonRepair.repair(raw.toString()));
+            } catch (RuntimeException e) {
+                metrics.repair(op, "failed");
+                throw e;
+            }
+            truncated = !repaired.isFinished();
+            metrics.repair(op, truncated ? "truncated" : "repaired");
+            return files;
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
     }
 
-    public GenerateResponse editProject(String projectId, String userInstruction) {
+    private <T> T countParseFailure(String op, Supplier<T> step) {
         try {
-            // Load current files
-            List<GenerateResponse.GeneratedFile> currentFiles = fileStorageService.loadProjectFiles(projectId);
-            
-            // Build edit prompt
-            String prompt = buildEditPrompt(currentFiles, userInstruction);
-            
-            // Generate updated files
-            String aiResult = openRouterClient.generate(prompt);
-            
-            logger.info("===== RAW AI EDIT RESPONSE START =====");
-            logger.info(aiResult);
-            logger.info("===== RAW AI EDIT RESPONSE END =====");
-            
-            String cleanedJson = cleanAiJson(aiResult);
-            GeneratedFilesWrapper wrapper = objectMapper.readValue(cleanedJson, GeneratedFilesWrapper.class);
-            
-            // VALIDATE: Must have exactly 3 files: index.html, styles.css, script.js
-            validateFiles(wrapper.files());
-            
-            // SAVE UPDATED FILES TO DISK
-            fileStorageService.saveProjectFiles(projectId, wrapper.files());
-            
-            // UPDATE ZIP
-            zipService.zipProject(projectId);
-            
-            return new GenerateResponse(
-                    true,
-                    "Project updated successfully",
-                    projectId,
-                    wrapper.files());
-        } catch (Exception e) {
-            logger.error("PRODUCTION ERROR: Failed to edit project. Error: {}", e.getMessage());
-            return new GenerateResponse(false, "Failed to edit project: " + e.getMessage(), projectId,
-                    Collections.emptyList());
+            return step.get();
+        } catch (RuntimeException e) {
+            metrics.parseFailure(op, "files");
+            throw e;
         }
     }
 
-    private String buildEditPrompt(List<GenerateResponse.GeneratedFile> currentFiles, String userInstruction) {
-        StringBuilder filesContext = new StringBuilder();
-        for (GenerateResponse.GeneratedFile file : currentFiles) {
-            filesContext.append("\n--- ").append(file.getPath()).append(" ---\n");
-            filesContext.append(file.getContent());
-            filesContext.append("\n");
+    // Storage is blocking, keep it off the Netty event loop and on the
+    // blocking scheduler (virtual threads when enabled). Archives are built
+    // on download.
+    private Mono<List<GenerateResponse.GeneratedFile>> publish(String projectId,
+            List<GenerateResponse.GeneratedFile> files, OpenRouterOperation operation) {
+        String op = PipelineMetrics.tag(operation);
+        return Mono.fromCallable(() -> {
+            // VALIDATE: Must have exactly 3 files: index.html, styles.css, script.js
+            metrics.time(op, PipelineMetrics.Stage.VALIDATE, () -> validateFiles(files, operation));
+
+            // OPTIMIZE: minified and gzip copies to serve, the originals stay editable
+            Map<String, AssetOptimizer.Variants> variants = metrics.time(op, PipelineMetrics.Stage.OPTIMIZE,
+                    () -> assetOptimizer.optimize(files));
+
+            // SAVE FILES TO DISK
+            metrics.time(op, PipelineMetrics.Stage.SAVE,
+                    () -> fileStorageService.saveProjectFiles(projectId, files, variants));
+            accessTracker.touch(projectId);
+            return files;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    private void validateFile(GenerateResponse.GeneratedFile file, List<GenerateResponse.GeneratedFile> previous,
+            OpenRouterOperation operation) {
+        if (file.getPath() == null || file.getContent() == null) {
+            throw invalid(operation, "missing-field", "Invalid file entry. Each file must have a path and content");
+        }
+        String path = file.getPath().toLowerCase();
+        if (!REQUIRED_FILES.contains(path)) {
+            throw invalid(operation, "unexpected-file",
+                    "Invalid files. Must contain exactly: index.html, styles.css, script.js. Found: " + file.getPath());
+        }
+        if (previous.stream().anyMatch(f -> f.getPath().equalsIgnoreCase(path))) {
+            throw invalid(operation, "duplicate-file", "Duplicate file in model response: " + file.getPath());
         }
-        
-        return String.format(
-                "You are ForgeAI, an expert senior web product designer and frontend architect.\n" +
-                        "\n" +
-                        "You generate complete production-quality websites using:\n" +
-                        "- HTML\n" +
-                        "- CSS\n" +
-                        "- Vanilla JavaScript only\n" +
-                        "\n" +
-                        "📦 OUTPUT FORMAT (MANDATORY JSON)\n" +
-                        "Always respond in this exact format:\n" +
-                        "{\n" +
-                        "  \"files\": [\n" +
-                        "    { \"path\": \"index.html\", \"content\": \"...\" },\n" +
-                        "    { \"path\": \"styles.css\", \"content\": \"...\" },\n" +
-                        "    { \"path\": \"script.js\", \"content\": \"...\" }\n" +
-                        "  ]\n" +
-                        "}\n" +
-                        "\n" +
-                        "No markdown. No explanations. No backticks.\n" +
-                        "\n" +
-                        "🏗️ WEBSITE STRUCTURE (MANDATORY)\n" +
-                        "Every website MUST include:\n" +
-                        "- Sticky header with nav\n" +
-                        "- Hero section with CTA\n" +
-                        "- Features / Services section (3–6 cards)\n" +
-                        "- About section\n" +
-                        "- Benefits / Why Choose Us section\n" +
-                        "- Call-to-action section\n" +
-                        "- Footer with:\n" +
-                        "  - Links\n" +
-                        "  - Copyright\n" +
-                        "  - Text: Built with ForgeAI\n" +
-                        "\n" +
-                        "🎨 DESIGN RULES\n" +
-                        "Must look modern startup / SaaS quality\n" +
-                        "Must include:\n" +
-                        "- Cards\n" +
-                        "- Shadows\n" +
-                        "- Gradients\n" +
-                        "- Hover animations\n" +
-                        "- Scroll animations\n" +
-                        "- Section reveal animations\n" +
-                        "- Fully responsive\n" +
-                        "\n" +
-                        "🧠 CONTENT RULES\n" +
-                        "Use the user's idea as the business theme\n" +
-                        "Write realistic professional marketing content\n" +
-                        "No lorem ipsum\n" +
-                        "No placeholders\n" +
-                        "No \"Hello world\"\n" +
-                        "\n" +
-                        "⚙️ INTERACTIVITY RULES\n" +
-                        "Must include:\n" +
-                        "- Smooth scrolling\n" +
-                        "- Navbar scroll effect\n" +
-                        "- Button hover animations\n" +
-                        "- Section reveal animation\n" +
-                        "- Simple JS animations\n" +
-                        "\n" +
-                        "🧱 TECH RULES\n" +
-                        "❌ No React\n" +
-                        "❌ No Tailwind\n" +
-                        "❌ No Bootstrap\n" +
-                        "❌ No frameworks\n" +
-                        "❌ No external JS or CSS libraries\n" +
-                        "❌ No CDN dependencies\n" +
-                        "\n" +
-                        "🏷️ BRANDING RULE\n" +
-                        "If user asks who you are or who built this:\n" +
-                        "Always say:\n" +
-                        "I am ForgeAI, an AI website builder created by the ForgeAI team.\n" +
-                        "\n" +
-                        "🧨 HARD FAIL CONDITIONS\n" +
-                        "Do NOT return code fences\n" +
-                        "Do NOT return explanations\n" +
-                        "Do NOT return markdown\n" +
-                        "Do NOT return partial files\n" +
-                        "\n" +
-                        "CURRENT FILES:\n%s\n" +
-                        "\n" +
-                        "USER INSTRUCTION: %s\n" +
-                        "\n" +
-                        "Regenerate ALL files fully based on the user's instruction.\n" +
-                        "Use proper escaping for double quotes and newlines in the JSON content values.",
-                filesContext.toString(),
-                userInstruction);
     }
 
-    private void validateFiles(List<GenerateResponse.GeneratedFile> files) {
+    private void validateFiles(List<GenerateResponse.GeneratedFile> files, OpenRouterOperation operation) {
         if (files == null || files.size() != 3) {
-            throw new RuntimeException(
+            throw invalid(operation, "file-count",
                     "Invalid file count. Expected exactly 3 files (index.html, styles.css, script.js), but got: " +
                             (files == null ? "null" : files.size()));
         }
@@ -346,7 +573,7 @@ public class GenerateService {
         }
 
         if (!hasIndexHtml || !hasStylesCss || !hasScriptJs) {
-            throw new RuntimeException(
+            throw invalid(operation, "missing-file",
                     "Invalid files. Must contain exactly: index.html, styles.css, script.js. " +
                             "Found: " + files.stream()
                                     .map(f -> f.getPath())
@@ -355,6 +582,9 @@ public class GenerateService {
         }
     }
 
-    private record GeneratedFilesWrapper(List<GenerateResponse.GeneratedFile> files) {
+    private RuntimeException invalid(OpenRouterOperation operation, String reason, String message) {
+        metrics.validationFailure(PipelineMetrics.tag(operation), reason);
+        return new RuntimeException(message);
     }
+
 }
@@ -0,0 +1,137 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.GenerationCacheProperties;
+import com.forgeai.backend.dto.GenerateRequest;
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.util.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Exact-match cache of validated generation results keyed by the normalized
+ * request and model. Identical requests that arrive while a generation is in
+ * flight share its output instead of starting another upstream call.
+ */
+@Component
+public class GenerationCache {
+
+    private final GenerationCacheProperties properties;
+    private final Map<String, Flux<GenerateResponse.GeneratedFile>> inFlight = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter coalescedCounter;
+
+    public GenerationCache(GenerationCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hitCounter = Counter.builder("forgeai.generation.cache").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("forgeai.generation.cache").tag("result", "miss").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("forgeai.generation.cache").tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("forgeai.generation.cache.size", this, GenerationCache::size).register(meterRegistry);
+    }
+
+    public static String keyFor(GenerateRequest request, String model) {
+        List<String> sections = request.getSections() == null
+                ? Collections.emptyList()
+                : request.getSections().stream()
+                        .map(GenerationCache::normalize)
+                        .filter(section -> !section.isEmpty())
+                        .toList();
+        return Hashing.sha256Hex(
+                model,
+                normalize(request.getProjectName()),
+                normalize(request.getDescription()),
+                normalize(request.getCategory()).toLowerCase(Locale.ROOT),
+                String.join("\n", sections));
+    }
+
+    /**
+     * Returns the cached files for the key, joins an in-flight generation for
+     * it, or starts the generator. The generator must only complete once its
+     * files have passed validation, as completed results are cached.
+     */
+    public Flux<GenerateResponse.GeneratedFile> getOrCompute(String key,
+            Supplier<Flux<GenerateResponse.GeneratedFile>> generator) {
+        if (!properties.isEnabled()) {
+            return generator.get();
+        }
+
+        return Flux.defer(() -> {
+            List<GenerateResponse.GeneratedFile> cached = lookup(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return Flux.fromIterable(cached);
+            }
+
+            boolean[] started = new boolean[1];
+            Flux<GenerateResponse.GeneratedFile> shared = inFlight.computeIfAbsent(key, k -> {
+                started[0] = true;
+                return startGeneration(k, generator);
+            });
+            (started[0] ? missCounter : coalescedCounter).increment();
+            return shared;
+        }).map(GenerationCache::copy);
+    }
+
+    private Flux<GenerateResponse.GeneratedFile> startGeneration(String key,
+            Supplier<Flux<GenerateResponse.GeneratedFile>> generator) {
+        List<GenerateResponse.GeneratedFile> collected = Collections.synchronizedList(new ArrayList<>());
+
+        // cache() keeps the generation running for the other waiters even if
+        // the request that started it goes away
+        return Flux.defer(generator)
+                .doOnNext(collected::add)
+                .doOnComplete(() -> store(key, List.copyOf(collected)))
+                .doFinally(signal -> inFlight.remove(key))
+                .cache();
+    }
+
+    private synchronized List<GenerateResponse.GeneratedFile> lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(Instant.now())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.files();
+    }
+
+    private synchronized void store(String key, List<GenerateResponse.GeneratedFile> files) {
+        entries.put(key, new Entry(files, Instant.now().plus(properties.getTtl())));
+        while (entries.size() > properties.getMaxEntries()) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ");
+    }
+
+    private static GenerateResponse.GeneratedFile copy(GenerateResponse.GeneratedFile file) {
+        return new GenerateResponse.GeneratedFile(file.getPath(), file.getContent());
+    }
+
+    private record Entry(List<GenerateResponse.GeneratedFile> files, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.JobProperties;
+import com.forgeai.backend.dto.GenerateRequest;
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.JobStatusResponse;
+import com.forgeai.backend.exception.JobQueueFullException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs generate and edit requests detached from the HTTP connection on a
+ * fixed worker pool with a bounded queue. Finished jobs are kept for
+ * forgeai.jobs.retention so clients can poll for the result.
+ */
+@Service
+public class JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    private final GenerateService generateService;
+    private final JobProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public JobService(GenerateService generateService, JobProperties properties, Environment environment,
+            MeterRegistry meterRegistry) {
+        this.generateService = generateService;
+        this.properties = properties;
+
+        ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? Thread.ofVirtual().name("forgeai-job-", 0).factory()
+                : Thread.ofPlatform().name("forgeai-job-", 0).daemon().factory();
+        this.executor = new ThreadPoolExecutor(
+                properties.getWorkers(),
+                properties.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("forgeai.jobs.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("forgeai.jobs.running", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public JobStatusResponse submitGenerate(GenerateRequest request) {
+        // Captured here, the job runs off the request thread
+        Caller caller = Caller.current();
+        return submit("generate", null, () -> generateService.generateProject(request, caller));
+    }
+
+    public JobStatusResponse submitEdit(String projectId, String userInstruction) {
+        Caller caller = Caller.current();
+        return submit("edit", projectId, () -> generateService.editProject(projectId, userInstruction, caller));
+    }
+
+    public Optional<JobStatusResponse> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toResponse);
+    }
+
+    private JobStatusResponse submit(String type, String projectId, Supplier<GenerateResponse> task) {
+        Job job = new Job(UUID.randomUUID().toString(), type, projectId);
+        jobs.put(job.id, job);
+
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            logger.warn("Job queue full, rejecting {} job", type);
+            throw new JobQueueFullException("Too many queued jobs, try again later", properties.getRetryAfter());
+        }
+
+        logger.info("Queued {} job {}", type, job.id);
+        return job.toResponse();
+    }
+
+    private void run(Job job, Supplier<GenerateResponse> task) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = Instant.now();
+
+        GenerateResponse result;
+        try {
+            result = task.get();
+        } catch (Exception e) {
+            logger.error("Job {} failed: {}", job.id, e.getMessage());
+            result = new GenerateResponse(false, "Job failed: " + e.getMessage(), job.projectId,
+                    Collections.emptyList());
+        }
+
+        job.result = result;
+        job.finishedAt = Instant.now();
+        job.status = result.isSuccess() ? JobStatus.SUCCEEDED : JobStatus.FAILED;
+        logger.info("Job {} finished with status {}", job.id, job.status);
+    }
+
+    @Scheduled(fixedDelayString = "${forgeai.jobs.cleanup-interval:60s}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private enum JobStatus {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String type;
+        private final String projectId;
+        private final Instant createdAt = Instant.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile GenerateResponse result;
+
+        private Job(String id, String type, String projectId) {
+            this.id = id;
+            this.type = type;
+            this.projectId = projectId;
+        }
+
+        private JobStatusResponse toResponse() {
+            GenerateResponse current = result;
+            String currentProjectId = current != null && current.getProjectId() != null
+                    ? current.getProjectId()
+                    : projectId;
+            return new JobStatusResponse(id, type, status.name(), currentProjectId, createdAt, startedAt,
+                    finishedAt, current);
+        }
+    }
+}
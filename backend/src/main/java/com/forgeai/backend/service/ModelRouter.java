@@ -0,0 +1,306 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.client.OpenRouterOperation;
+import com.forgeai.backend.config.RouterProperties;
+import com.forgeai.backend.config.UpstreamProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Picks the model for each upstream call from the models configured for the
+ * operation, using rolling time-to-first-token and error statistics. Once
+ * the chosen model has held its slot for its observed p95 without producing
+ * content, the next model is started as a hedge and whichever produces
+ * content first wins; the other is cancelled. Values without content, such
+ * as a role-only delta, do not count. A 5xx, 429, timeout or connection
+ * error starts the next model at once.
+ * <p>
+ * Every attempt runs under the {@link UpstreamLimiter}, and hedges are only
+ * sent while no call is waiting for a slot; while calls are waiting, the
+ * hedge is checked again every {@code min-hedge-delay}. When all models fail before
+ * emitting anything, the whole route is retried with jittered exponential
+ * backoff, or after the provider's Retry-After, unless the
+ * {@link UpstreamCircuitBreaker} has opened meanwhile.
+ */
+@Component
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    private final RouterProperties properties;
+    private final UpstreamProperties.Retry retryProperties;
+    private final UpstreamLimiter upstreamLimiter;
+    private final UpstreamCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ModelStats> stats = new ConcurrentHashMap<>();
+
+    public ModelRouter(RouterProperties properties, UpstreamProperties upstreamProperties,
+            UpstreamLimiter upstreamLimiter, UpstreamCircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.retryProperties = upstreamProperties.getRetry();
+        this.upstreamLimiter = upstreamLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the call against the best model for the operation, hedging, failing
+     * over and retrying as needed. {@code hasContent} tells the values that
+     * show a model is producing output from empty ones.
+     */
+    public <T> Flux<T> route(OpenRouterOperation operation, Function<String, ? extends Publisher<T>> call,
+            Predicate<? super T> hasContent) {
+        String tag = PipelineMetrics.tag(operation);
+        return Flux.defer(() -> {
+            // Once anything was emitted a retry would duplicate output
+            AtomicBoolean emitted = new AtomicBoolean();
+            return circuitBreaker.protect(Flux.defer(() -> attempt(rank(operation), 0, tag, call, hasContent)))
+                    .doOnNext(value -> emitted.set(true))
+                    .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                        Throwable e = signal.failure();
+                        Duration backoff = signal.totalRetries() + 1 < retryProperties.getMaxAttempts()
+                                && !emitted.get() && UpstreamErrors.isRetryable(e)
+                                ? backoff(signal.totalRetries(), e)
+                                : null;
+                        if (backoff == null) {
+                            return Mono.error(e);
+                        }
+                        meterRegistry.counter("forgeai.upstream.retries", "operation", tag).increment();
+                        logger.info("Retrying {} in {} ms after: {}", tag, backoff.toMillis(), e.getMessage());
+                        return Mono.delay(backoff);
+                    })));
+        });
+    }
+
+    /**
+     * Healthy models first, those with enough samples by p95 ahead of the
+     * rest, otherwise in configured order.
+     */
+    List<String> rank(OpenRouterOperation operation) {
+        List<String> configured = properties.modelsFor(operation);
+        List<String> ranked = new ArrayList<>(configured);
+        ranked.sort(Comparator.<String, Boolean>comparing(model -> !statsFor(model).healthy())
+                .thenComparingLong(model -> {
+                    long p95 = statsFor(model).p95Nanos();
+                    return p95 < 0 ? Long.MAX_VALUE : p95;
+                })
+                .thenComparingInt(configured::indexOf));
+        return ranked;
+    }
+
+    private <T> Flux<T> attempt(List<String> models, int index, String operation,
+            Function<String, ? extends Publisher<T>> call, Predicate<? super T> hasContent) {
+        String model = models.get(index);
+        // Completes once the primary holds a slot, so queueing does not count towards the hedge delay
+        Sinks.Empty<Void> started = Sinks.empty();
+        Flux<T> primary = measured(model, call, hasContent, started);
+        if (index == models.size() - 1) {
+            return primary;
+        }
+
+        // Completes with the primary's error, or empty once it completes
+        Sinks.One<Throwable> primaryError = Sinks.one();
+        Flux<List<T>> first = untilContent(primary
+                .doOnError(primaryError::tryEmitValue)
+                .doOnComplete(primaryError::tryEmitEmpty), hasContent);
+
+        Mono<String> failover = primaryError.asMono()
+                .flatMap(e -> UpstreamErrors.isRetryable(e) ? Mono.just("failover") : Mono.error(e));
+        Mono<String> hedge = properties.isHedging()
+                ? started.asMono().then(Mono.defer(() -> hedgeWhenIdle(hedgeDelay(model))))
+                : Mono.never();
+
+        // The primary terminating always decides, so a bad request is not
+        // retried on the next model and an empty completion does not hang
+        String next = models.get(index + 1);
+        Flux<List<T>> backup = Mono.firstWithSignal(failover, hedge)
+                .flatMapMany(reason -> {
+                    logger.info("Starting {} on {} after {} ({})", operation, next, model, reason);
+                    meterRegistry.counter("forgeai.router.backup", "operation", operation, "reason", reason)
+                            .increment();
+                    return untilContent(attempt(models, index + 1, operation, call, hasContent), hasContent);
+                });
+
+        return Flux.firstWithValue(first, backup)
+                .onErrorMap(ModelRouter::unwrapRace)
+                .concatMapIterable(Function.identity());
+    }
+
+    // Fires after the delay once no call is waiting for a slot, checking again every min-hedge-delay
+    private Mono<String> hedgeWhenIdle(Duration delay) {
+        return Flux.interval(delay, properties.getMinHedgeDelay())
+                .filter(tick -> upstreamLimiter.waiting() == 0)
+                .next()
+                .map(tick -> "hedge");
+    }
+
+    /**
+     * Holds back values until the first one with content and then passes
+     * each on by itself, so a source only wins a race by producing content.
+     * A source that completes without any still emits what it held.
+     */
+    private static <T> Flux<List<T>> untilContent(Flux<T> source, Predicate<? super T> hasContent) {
+        return Flux.defer(() -> {
+            AtomicBoolean producing = new AtomicBoolean();
+            return source.bufferUntil(value -> {
+                if (!producing.get() && hasContent.test(value)) {
+                    producing.set(true);
+                }
+                return producing.get();
+            });
+        });
+    }
+
+    /** Records time to the first content and failures, from the moment a slot is granted. */
+    private <T> Flux<T> measured(String model, Function<String, ? extends Publisher<T>> call,
+            Predicate<? super T> hasContent, Sinks.Empty<Void> started) {
+        ModelStats modelStats = statsFor(model);
+        return upstreamLimiter.limit(() -> Flux.defer(() -> {
+            started.tryEmitEmpty();
+            long start = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean(true);
+            return Flux.<T>from(call.apply(model))
+                    .doOnNext(value -> {
+                        if (hasContent.test(value) && first.compareAndSet(true, false)) {
+                            modelStats.success(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (UpstreamErrors.isRetryable(e)) {
+                            modelStats.failure();
+                        }
+                    });
+        }));
+    }
+
+    /**
+     * Full jitter over an exponential ceiling, or the Retry-After if the
+     * provider sent one. Null when the wait would exceed the maximum backoff.
+     */
+    private Duration backoff(long retry, Throwable e) {
+        Duration max = retryProperties.getMaxBackoff();
+        Optional<Duration> retryAfter = UpstreamErrors.retryAfter(e);
+        if (retryAfter.isPresent()) {
+            return retryAfter.get().compareTo(max) <= 0 ? retryAfter.get() : null;
+        }
+        long ceiling = Math.min(max.toMillis(), retryProperties.getInitialBackoff().toMillis() << Math.min(retry, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private Duration hedgeDelay(String model) {
+        long p95 = statsFor(model).p95Nanos();
+        if (p95 < 0) {
+            return properties.getInitialHedgeDelay();
+        }
+        Duration observed = Duration.ofNanos(p95);
+        return observed.compareTo(properties.getMinHedgeDelay()) < 0 ? properties.getMinHedgeDelay() : observed;
+    }
+
+    private ModelStats statsFor(String model) {
+        return stats.computeIfAbsent(model, m -> {
+            ModelStats modelStats = new ModelStats(properties.getWindow(), properties.getMinSamples(),
+                    properties.getMaxErrorRate());
+            Gauge.builder("forgeai.router.latency.p95", modelStats, s -> Math.max(s.p95Nanos(), 0) / 1_000_000.0)
+                    .description("Observed p95 time to first token")
+                    .baseUnit("milliseconds")
+                    .tag("model", m)
+                    .register(meterRegistry);
+            Gauge.builder("forgeai.router.error.rate", modelStats, ModelStats::errorRate)
+                    .tag("model", m)
+                    .register(meterRegistry);
+            return modelStats;
+        });
+    }
+
+    // A race where every source failed reports its errors as the cause;
+    // surface the last real one, i.e. from the model tried last
+    private static Throwable unwrapRace(Throwable e) {
+        if (!(e instanceof NoSuchElementException) || e.getCause() == null) {
+            return e;
+        }
+        List<Throwable> errors = Exceptions.unwrapMultiple(e.getCause());
+        return errors.isEmpty() ? e : errors.get(errors.size() - 1);
+    }
+
+    private static final class ModelStats {
+        private final long[] latencies;
+        private final boolean[] failures;
+        private final int minSamples;
+        private final double maxErrorRate;
+        private int latencyCount;
+        private int latencyNext;
+        private int outcomeCount;
+        private int outcomeNext;
+
+        private ModelStats(int window, int minSamples, double maxErrorRate) {
+            this.latencies = new long[window];
+            this.failures = new boolean[window];
+            this.minSamples = minSamples;
+            this.maxErrorRate = maxErrorRate;
+        }
+
+        synchronized void success(long nanos) {
+            latencies[latencyNext] = nanos;
+            latencyNext = (latencyNext + 1) % latencies.length;
+            latencyCount = Math.min(latencyCount + 1, latencies.length);
+            outcome(false);
+        }
+
+        synchronized void failure() {
+            outcome(true);
+        }
+
+        /** -1 until there are enough samples. */
+        synchronized long p95Nanos() {
+            if (latencyCount < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(0.95 * latencyCount) - 1];
+        }
+
+        synchronized double errorRate() {
+            int failed = 0;
+            for (int i = 0; i < outcomeCount; i++) {
+                if (failures[i]) {
+                    failed++;
+                }
+            }
+            return outcomeCount == 0 ? 0 : (double) failed / outcomeCount;
+        }
+
+        synchronized boolean healthy() {
+            return outcomeCount < minSamples || errorRate() <= maxErrorRate;
+        }
+
+        private void outcome(boolean failed) {
+            failures[outcomeNext] = failed;
+            outcomeNext = (outcomeNext + 1) % failures.length;
+            outcomeCount = Math.min(outcomeCount + 1, failures.length);
+        }
+    }
+}
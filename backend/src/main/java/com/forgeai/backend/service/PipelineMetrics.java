@@ -0,0 +1,199 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.client.OpenRouterOperation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Timers for each stage of the generate and edit pipelines, failure counters
+ * by reason and latency and size of served assets. Percentiles and histogram
+ * buckets are configured for all {@code forgeai.*} meters through
+ * {@code management.metrics.distribution.*}.
+ */
+@Component
+public class PipelineMetrics {
+
+    public enum Stage {
+        /** Whole request, from the first upstream byte requested to the saved project */
+        TOTAL,
+        /** Loading the current files before an edit */
+        LOAD,
+        /** The OpenRouter call, until the last chunk arrives */
+        UPSTREAM,
+        /** The design spec call of fan-out generation */
+        SPEC,
+        /** Streaming JSON parsing of the completion */
+        PARSE,
+        /** Applying search/replace edits */
+        PATCH,
+        VALIDATE,
+        /** Minifying and precompressing the files to serve */
+        OPTIMIZE,
+        SAVE,
+        ZIP
+    }
+
+    public enum Asset {
+        PREVIEW,
+        DOWNLOAD
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String operation, Stage stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            record(operation, stage, System.nanoTime() - start, success ? "success" : "error");
+        }
+    }
+
+    public void time(String operation, Stage stage, Runnable work) {
+        time(operation, stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /** Times the flux from subscription until it completes, fails or is cancelled. */
+    public <T> Flux<T> time(String operation, Stage stage, Flux<T> flux) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return onTermination(flux, outcome -> record(operation, stage, System.nanoTime() - start, outcome));
+        });
+    }
+
+    public <T> Mono<T> time(String operation, Stage stage, Mono<T> mono) {
+        return time(operation, stage, mono.flux()).singleOrEmpty();
+    }
+
+    /**
+     * Calls back once with the first terminal signal. Unlike doFinally, a
+     * cancel sent by downstream while it handles onComplete is not reported
+     * as the outcome.
+     */
+    public static <T> Flux<T> onTermination(Flux<T> flux, Consumer<String> callback) {
+        AtomicBoolean done = new AtomicBoolean();
+        Consumer<String> once = outcome -> {
+            if (done.compareAndSet(false, true)) {
+                callback.accept(outcome);
+            }
+        };
+        return flux.doOnComplete(() -> once.accept("success"))
+                .doOnError(e -> once.accept("error"))
+                .doOnCancel(() -> once.accept("cancelled"));
+    }
+
+    /**
+     * Timer for a stage that runs in many short steps, such as parsing each
+     * chunk of a stream; the steps are summed and recorded once.
+     */
+    public SteppedTimer steppedTimer(String operation, Stage stage) {
+        return new SteppedTimer(operation, stage);
+    }
+
+    public void record(String operation, Stage stage, long nanos, String outcome) {
+        Timer.builder("forgeai.pipeline.stage")
+                .description("Time spent in each stage of the generation pipeline")
+                .tag("operation", operation)
+                .tag("stage", tag(stage))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void validationFailure(String operation, String reason) {
+        meterRegistry.counter("forgeai.pipeline.validation.failures", "operation", operation, "reason", reason)
+                .increment();
+    }
+
+    public void parseFailure(String operation, String format) {
+        meterRegistry.counter("forgeai.pipeline.parse.failures", "operation", operation, "format", format)
+                .increment();
+    }
+
+    public void repair(String operation, String result) {
+        meterRegistry.counter("forgeai.pipeline.repairs", "operation", operation, "result", result).increment();
+    }
+
+    public void continuation(String operation) {
+        meterRegistry.counter("forgeai.pipeline.continuations", "operation", operation).increment();
+    }
+
+    public void served(Asset asset, long nanos, int status, long bytes) {
+        String endpoint = tag(asset);
+        Timer.builder("forgeai.assets.latency")
+                .tag("endpoint", endpoint)
+                .tag("status", Integer.toString(status))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (bytes > 0) {
+            DistributionSummary.builder("forgeai.assets.bytes")
+                    .baseUnit("bytes")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+
+    public static String tag(OpenRouterOperation operation) {
+        return tag((Enum<?>) operation);
+    }
+
+    public static String tag(Asset asset) {
+        return tag((Enum<?>) asset);
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    public final class SteppedTimer {
+        private final String operation;
+        private final Stage stage;
+        private long nanos;
+
+        private SteppedTimer(String operation, Stage stage) {
+            this.operation = operation;
+            this.stage = stage;
+        }
+
+        public <T> T time(Supplier<T> step) {
+            long start = System.nanoTime();
+            try {
+                return step.get();
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        public void time(Runnable step) {
+            time(() -> {
+                step.run();
+                return null;
+            });
+        }
+
+        public void record(String outcome) {
+            PipelineMetrics.this.record(operation, stage, nanos, outcome);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.PreviewCacheProperties;
+import com.forgeai.backend.util.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size-bounded in-memory cache of preview assets with their content type,
+ * strong ETag and gzip variant, read or computed once per file version. Entries for a
+ * project are dropped whenever it is saved again or rolled back.
+ */
+@Component
+public class PreviewAssetCache {
+
+    private final FileStorageService fileStorageService;
+    private final PreviewCacheProperties properties;
+    private final LinkedHashMap<AssetKey, PreviewAsset> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    // Bumped on every eviction so a load that raced with a save is not cached
+    private long evictions;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public PreviewAssetCache(FileStorageService fileStorageService, PreviewCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.fileStorageService = fileStorageService;
+        this.properties = properties;
+        this.hitCounter = Counter.builder("forgeai.preview.cache").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("forgeai.preview.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("forgeai.preview.cache.bytes", this, PreviewAssetCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the asset of the given version, or of the current version when
+     * {@code version} is null.
+     */
+    public Optional<PreviewAsset> get(String projectId, Integer version, String path) {
+        AssetKey key = new AssetKey(projectId, version, path);
+        if (properties.isEnabled()) {
+            PreviewAsset cached = lookup(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return Optional.of(cached);
+            }
+        }
+
+        missCounter.increment();
+        long evictionsBeforeLoad = evictions();
+        Optional<PreviewAsset> loaded = fileStorageService.readProjectAsset(projectId, version, path)
+                .map(stored -> toAsset(path, stored));
+        if (properties.isEnabled()) {
+            loaded.ifPresent(asset -> store(key, asset, evictionsBeforeLoad));
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public void onProjectFilesSaved(ProjectFilesSavedEvent event) {
+        evictProject(event.projectId());
+    }
+
+    public synchronized void evictProject(String projectId) {
+        evictions++;
+        Iterator<Map.Entry<AssetKey, PreviewAsset>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<AssetKey, PreviewAsset> entry = it.next();
+            if (entry.getKey().projectId().equals(projectId)) {
+                totalBytes -= entry.getValue().weight();
+                it.remove();
+            }
+        }
+    }
+
+    /** Cached bytes per project, for the retention report. */
+    public synchronized Map<String, Long> bytesByProject() {
+        Map<String, Long> bytes = new HashMap<>();
+        entries.forEach((key, asset) -> bytes.merge(key.projectId(), asset.weight(), Long::sum));
+        return bytes;
+    }
+
+    private synchronized PreviewAsset lookup(AssetKey key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(AssetKey key, PreviewAsset asset, long evictionsBeforeLoad) {
+        long maxBytes = properties.getMaxSize().toBytes();
+        // A single asset may not take over the whole cache
+        if (asset.weight() > maxBytes / 4 || evictions != evictionsBeforeLoad) {
+            return;
+        }
+
+        PreviewAsset previous = entries.put(key, asset);
+        if (previous != null) {
+            totalBytes -= previous.weight();
+        }
+        totalBytes += asset.weight();
+
+        Iterator<PreviewAsset> it = entries.values().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().weight();
+            it.remove();
+        }
+    }
+
+    private synchronized long evictions() {
+        return evictions;
+    }
+
+    private synchronized long size() {
+        return totalBytes;
+    }
+
+    // Files saved with a precompressed copy are served from it; older ones
+    // are compressed here, once per cached version
+    private PreviewAsset toAsset(String path, FileStorageService.StoredAsset stored) {
+        ByteBuffer content = stored.content();
+        MediaType mediaType = mediaTypeFor(path);
+        MessageDigest digest = Hashing.sha256();
+        digest.update(content.duplicate());
+        String hash = HexFormat.of().formatHex(digest.digest());
+
+        ByteBuffer gzipped = stored.gzipped();
+        if (gzipped == null && isCompressible(mediaType)
+                && content.remaining() >= properties.getMinCompressSize().toBytes()) {
+            byte[] candidate = gzip(content);
+            if (candidate.length < content.remaining()) {
+                gzipped = ByteBuffer.wrap(candidate).asReadOnlyBuffer();
+            }
+        }
+
+        return new PreviewAsset(mediaType, content, gzipped, "\"" + hash + "\"", "\"" + hash + "-gz\"");
+    }
+
+    static MediaType mediaTypeFor(String path) {
+        String fileName = path.toLowerCase();
+        if (fileName.endsWith(".html"))
+            return MediaType.TEXT_HTML;
+        if (fileName.endsWith(".css"))
+            return MediaType.parseMediaType("text/css");
+        if (fileName.endsWith(".js"))
+            return MediaType.parseMediaType("application/javascript");
+        return MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    static boolean isCompressible(MediaType mediaType) {
+        return "text".equals(mediaType.getType())
+                || mediaType.getSubtype().endsWith("javascript")
+                || mediaType.getSubtype().endsWith("json")
+                || mediaType.getSubtype().endsWith("xml");
+    }
+
+    private static byte[] gzip(ByteBuffer content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.remaining() / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out);
+                WritableByteChannel channel = Channels.newChannel(gzip)) {
+            channel.write(content.duplicate());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not compress preview asset", e);
+        }
+        return out.toByteArray();
+    }
+
+    // Explicit versions are immutable; entries for the current version
+    // (null) are evicted when the project is saved or rolled back
+    private record AssetKey(String projectId, Integer version, String path) {
+    }
+
+    /**
+     * A cached preview file; {@code content} and {@code gzipped} may be
+     * slices of a mapped segment, and {@code gzipped} is null when
+     * compression would not help.
+     */
+    public record PreviewAsset(MediaType mediaType, ByteBuffer content, ByteBuffer gzipped, String etag,
+            String gzipEtag) {
+
+        long weight() {
+            return content.remaining() + (gzipped == null ? 0 : gzipped.remaining());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.forgeai.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last time each project was previewed, downloaded or edited. Kept in memory
+ * only; after a restart the retention policy falls back to the time of the
+ * project's latest version.
+ */
+@Component
+public class ProjectAccessTracker {
+
+    private final Map<String, Instant> lastAccess = new ConcurrentHashMap<>();
+
+    public void touch(String projectId) {
+        lastAccess.put(projectId, Instant.now());
+    }
+
+    public Instant lastAccess(String projectId, Instant fallback) {
+        Instant accessed = lastAccess.get(projectId);
+        return accessed == null || accessed.isBefore(fallback) ? fallback : accessed;
+    }
+
+    public void forget(String projectId) {
+        lastAccess.remove(projectId);
+    }
+}
@@ -0,0 +1,8 @@
+package com.forgeai.backend.service;
+
+/**
+ * Published after a project's files have been written, so caches derived
+ * from them can be invalidated.
+ */
+public record ProjectFilesSavedEvent(String projectId) {
+}
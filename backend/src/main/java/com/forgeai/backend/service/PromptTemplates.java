@@ -0,0 +1,126 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.dto.GenerateRequest;
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.ai.Prompt;
+import com.forgeai.backend.util.PromptTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the prompts sent to the model from the templates under
+ * classpath:prompts. The ForgeAI rules are static system messages, so
+ * every request shares the same cacheable prefix and only the user message
+ * varies.
+ */
+@Component
+public class PromptTemplates {
+
+    private static final Map<String, String> FILE_FOCUS = Map.of(
+            "index.html", "Semantic markup with every spec section in order. Link styles.css in the head and load "
+                    + "script.js at the end of the body.",
+            "styles.css", "Expose the spec colors as custom properties on :root and style every spec class and "
+                    + "section id, including the states the script toggles.",
+            "script.js", "Vanilla JavaScript for the interactivity rules. Select elements only by the spec "
+                    + "section ids and classes.");
+
+    private final String filesSystem;
+    private final String patchSystem;
+    private final String specSystem;
+    private final String fileSystem;
+    private final PromptTemplate generate;
+    private final PromptTemplate edit;
+    private final PromptTemplate patch;
+    private final PromptTemplate continuation;
+    private final PromptTemplate file;
+
+    public PromptTemplates() {
+        this.filesSystem = load("system-files.txt");
+        this.patchSystem = load("system-patch.txt");
+        this.specSystem = load("system-spec.txt");
+        this.fileSystem = load("system-file.txt");
+        this.generate = PromptTemplate.compile(load("generate.txt"));
+        this.edit = PromptTemplate.compile(load("edit.txt"));
+        this.patch = PromptTemplate.compile(load("patch.txt"));
+        this.continuation = PromptTemplate.compile(load("continue.txt"));
+        this.file = PromptTemplate.compile(load("file.txt"));
+    }
+
+    public Prompt generate(GenerateRequest request) {
+        return new Prompt(filesSystem, projectDetails(request));
+    }
+
+    /** First step of fan-out generation: the design spec the files share. */
+    public Prompt spec(GenerateRequest request) {
+        return new Prompt(specSystem, projectDetails(request));
+    }
+
+    /** One file of a fan-out generation, written against the shared spec. */
+    public Prompt file(GenerateRequest request, String spec, String path) {
+        return new Prompt(fileSystem, file.render(Map.of(
+                "project", projectDetails(request),
+                "spec", spec,
+                "path", path,
+                "focus", FILE_FOCUS.getOrDefault(path, ""))));
+    }
+
+    public Prompt edit(List<GenerateResponse.GeneratedFile> currentFiles, String userInstruction) {
+        return new Prompt(filesSystem, edit.render(Map.of(
+                "files", filesContext(currentFiles),
+                "instruction", valueOf(userInstruction))));
+    }
+
+    public Prompt patch(List<GenerateResponse.GeneratedFile> currentFiles, String userInstruction) {
+        return new Prompt(patchSystem, patch.render(Map.of(
+                "files", filesContext(currentFiles),
+                "instruction", valueOf(userInstruction))));
+    }
+
+    /**
+     * Follow-up to a files prompt whose completion was cut off, asking only
+     * for the files that are still missing.
+     */
+    public Prompt continuation(Prompt original, List<String> done, List<String> missing) {
+        return new Prompt(original.system(), continuation.render(Map.of(
+                "request", original.user(),
+                "done", done.isEmpty() ? "none" : String.join(", ", done),
+                "missing", String.join(", ", missing))));
+    }
+
+    private String projectDetails(GenerateRequest request) {
+        return generate.render(Map.of(
+                "projectName", valueOf(request.getProjectName()),
+                "description", valueOf(request.getDescription()),
+                "category", valueOf(request.getCategory()),
+                "sections", request.getSections() == null ? "" : String.join(", ", request.getSections())));
+    }
+
+    private static String filesContext(List<GenerateResponse.GeneratedFile> currentFiles) {
+        StringBuilder filesContext = new StringBuilder();
+        for (GenerateResponse.GeneratedFile file : currentFiles) {
+            filesContext.append("\n--- ").append(file.getPath()).append(" ---\n");
+            filesContext.append(file.getContent());
+            filesContext.append("\n");
+        }
+        return filesContext.toString();
+    }
+
+    private static String valueOf(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String load(String name) {
+        try {
+            return new ClassPathResource("prompts/" + name)
+                    .getContentAsString(StandardCharsets.UTF_8)
+                    .stripTrailing();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not load prompt template " + name, e);
+        }
+    }
+}
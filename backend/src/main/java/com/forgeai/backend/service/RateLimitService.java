@@ -0,0 +1,229 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.RateLimitProperties;
+import com.forgeai.backend.dto.GenerationUsage;
+import com.forgeai.backend.dto.RateLimitsResponse;
+import com.forgeai.backend.exception.RateLimitedException;
+import com.forgeai.backend.util.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Per-caller token buckets for the generation endpoints. A caller is its
+ * API key when that key is listed in {@code api-keys} or has a caller limit,
+ * otherwise its address, so made-up keys cannot mint fresh buckets. Each
+ * request costs one request
+ * token plus its estimated model tokens: the prompt size and
+ * {@code estimated-completion-tokens}. Once the generation reports usage the
+ * difference is settled, so callers of large edits run into debt rather than
+ * getting them at the price of an estimate.
+ * <p>
+ * Limits start from {@code forgeai.ratelimit.*} and can be changed at
+ * runtime through the admin API; changes apply to the next request.
+ */
+@Service
+public class RateLimitService {
+
+    private static final double NANOS_PER_MINUTE = 60e9;
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final Set<String> knownKeys;
+    private final Map<String, RateLimitProperties.Limit> overrides = new ConcurrentHashMap<>();
+    private final Map<String, Buckets> buckets = new ConcurrentHashMap<>();
+    private volatile RateLimitProperties.Limit defaultLimit;
+
+    private final Counter admittedCounter;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public RateLimitService(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitService(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.knownKeys = properties.getApiKeys().stream()
+                .filter(key -> !key.isBlank())
+                .map(RateLimitService::keyId)
+                .collect(Collectors.toUnmodifiableSet());
+        this.defaultLimit = properties.getDefaultLimit().copy();
+        properties.getCallers().forEach((id, limit) -> overrides.put(id, limit.copy()));
+
+        this.admittedCounter = Counter.builder("forgeai.ratelimit.requests").tag("result", "admitted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("forgeai.ratelimit.requests").tag("result", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("forgeai.ratelimit.callers", buckets, Map::size)
+                .description("Callers with live token buckets")
+                .register(meterRegistry);
+        Gauge.builder("forgeai.ratelimit.overrides", overrides, Map::size).register(meterRegistry);
+        Gauge.builder("forgeai.ratelimit.default", this, s -> s.defaultLimit.getRequestsPerMinute())
+                .tag("limit", "requests_per_minute")
+                .register(meterRegistry);
+        Gauge.builder("forgeai.ratelimit.default", this, s -> s.defaultLimit.getTokensPerMinute())
+                .tag("limit", "tokens_per_minute")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charges the request to its caller and records the caller on the
+     * request, or throws {@link RateLimitedException} with the time until it
+     * would be admitted.
+     */
+    public Caller admit(HttpServletRequest request) {
+        String id = callerId(request);
+        RateLimitProperties.Limit limit = limitFor(id);
+        long estimatedTokens = Math.max(0, request.getContentLengthLong()) / CHARS_PER_TOKEN
+                + properties.getEstimatedCompletionTokens();
+        Caller caller = new Caller(id, limit.getWeight(), estimatedTokens);
+
+        if (properties.isEnabled()) {
+            long now = nanoClock.getAsLong();
+            Duration wait = buckets.computeIfAbsent(id, k -> new Buckets(limit, now))
+                    .tryAcquire(limit, estimatedTokens, now);
+            if (wait != null) {
+                rejectedCounter.increment();
+                throw new RateLimitedException("Rate limit exceeded, please retry later", wait);
+            }
+        }
+
+        admittedCounter.increment();
+        request.setAttribute(Caller.ATTRIBUTE, caller);
+        return caller;
+    }
+
+    /** Replaces the estimate charged at admission with the tokens actually used. */
+    public void settle(Caller caller, List<GenerationUsage> usage) {
+        if (!properties.isEnabled() || caller == Caller.ANONYMOUS) {
+            return;
+        }
+        Buckets callerBuckets = buckets.get(caller.id());
+        if (callerBuckets == null) {
+            return;
+        }
+        long used = 0;
+        for (GenerationUsage call : usage) {
+            used += (call.promptTokens() == null ? 0 : call.promptTokens())
+                    + (call.completionTokens() == null ? 0 : call.completionTokens());
+        }
+        callerBuckets.refund(limitFor(caller.id()), caller.estimatedTokens() - used, nanoClock.getAsLong());
+    }
+
+    public RateLimitsResponse limits() {
+        return new RateLimitsResponse(defaultLimit, Map.copyOf(overrides), buckets.size());
+    }
+
+    public RateLimitsResponse setDefaultLimit(RateLimitProperties.Limit limit) {
+        defaultLimit = limit.copy();
+        return limits();
+    }
+
+    public RateLimitsResponse setCallerLimit(String callerId, RateLimitProperties.Limit limit) {
+        overrides.put(callerId, limit.copy());
+        return limits();
+    }
+
+    public RateLimitsResponse removeCallerLimit(String callerId) {
+        overrides.remove(callerId);
+        return limits();
+    }
+
+    @Scheduled(fixedDelayString = "${forgeai.ratelimit.cleanup-interval:60s}")
+    public void evictIdleCallers() {
+        long cutoff = nanoClock.getAsLong() - properties.getIdleEviction().toNanos();
+        buckets.values().removeIf(callerBuckets -> callerBuckets.idleSince(cutoff));
+    }
+
+    private RateLimitProperties.Limit limitFor(String callerId) {
+        return overrides.getOrDefault(callerId, defaultLimit);
+    }
+
+    // Keys are hashed so they never show up in logs, metrics or the admin API
+    private String callerId(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        if (apiKey != null && !apiKey.isBlank()) {
+            String id = keyId(apiKey);
+            if (knownKeys.contains(id) || overrides.containsKey(id)) {
+                return id;
+            }
+        }
+        String forwardedFor = properties.isTrustForwardedFor() ? request.getHeader("X-Forwarded-For") : null;
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            return "ip:" + forwardedFor.split(",")[0].trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String keyId(String apiKey) {
+        return "key:" + Hashing.sha256Hex(apiKey.trim()).substring(0, 16);
+    }
+
+    private static final class Buckets {
+        private double requests;
+        private double tokens;
+        private long refilledAt;
+
+        private Buckets(RateLimitProperties.Limit limit, long now) {
+            this.requests = limit.getBurstRequests();
+            this.tokens = limit.getBurstTokens();
+            this.refilledAt = now;
+        }
+
+        /** Null when admitted, otherwise how long until the request would be. */
+        synchronized Duration tryAcquire(RateLimitProperties.Limit limit, long cost, long now) {
+            refill(limit, now);
+            // A request bigger than the burst only has to wait for a full bucket
+            double needed = Math.min(cost, limit.getBurstTokens());
+            if (requests >= 1 && tokens >= needed) {
+                requests -= 1;
+                tokens -= cost;
+                return null;
+            }
+            double wait = Math.max(
+                    waitNanos(1 - requests, limit.getRequestsPerMinute()),
+                    waitNanos(needed - tokens, limit.getTokensPerMinute()));
+            return Duration.ofNanos((long) wait);
+        }
+
+        synchronized void refund(RateLimitProperties.Limit limit, long tokenDelta, long now) {
+            refill(limit, now);
+            tokens = Math.min(limit.getBurstTokens(), tokens + tokenDelta);
+        }
+
+        synchronized boolean idleSince(long cutoff) {
+            return refilledAt - cutoff < 0;
+        }
+
+        private void refill(RateLimitProperties.Limit limit, long now) {
+            long elapsed = now - refilledAt;
+            refilledAt = now;
+            requests = Math.min(limit.getBurstRequests(),
+                    requests + elapsed * limit.getRequestsPerMinute() / NANOS_PER_MINUTE);
+            tokens = Math.min(limit.getBurstTokens(),
+                    tokens + elapsed * limit.getTokensPerMinute() / NANOS_PER_MINUTE);
+        }
+
+        private static double waitNanos(double missing, double perMinute) {
+            if (missing <= 0) {
+                return 0;
+            }
+            return perMinute <= 0 ? NANOS_PER_MINUTE : missing / perMinute * NANOS_PER_MINUTE;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.RetentionProperties;
+import com.forgeai.backend.dto.StorageReportResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves idle projects down the storage tiers: hot (preview assets in memory)
+ * to warm (versioned blobs on disk) to cold (a single compressed archive) and
+ * finally deletes them. Besides the idle times, the total stored bytes are
+ * kept under the quota by demoting the least recently used projects first.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+    private final FileStorageService fileStorageService;
+    private final PreviewAssetCache previewAssetCache;
+    private final ProjectAccessTracker accessTracker;
+    private final RetentionProperties properties;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile Instant lastRun;
+
+    private final Counter hotEvictions;
+    private final Counter warmEvictions;
+    private final Counter coldEvictions;
+
+    public RetentionService(FileStorageService fileStorageService, PreviewAssetCache previewAssetCache,
+            ProjectAccessTracker accessTracker, RetentionProperties properties, MeterRegistry meterRegistry) {
+        this.fileStorageService = fileStorageService;
+        this.previewAssetCache = previewAssetCache;
+        this.accessTracker = accessTracker;
+        this.properties = properties;
+        this.hotEvictions = Counter.builder("forgeai.retention.evictions").tag("tier", "hot")
+                .register(meterRegistry);
+        this.warmEvictions = Counter.builder("forgeai.retention.evictions").tag("tier", "warm")
+                .register(meterRegistry);
+        this.coldEvictions = Counter.builder("forgeai.retention.evictions").tag("tier", "cold")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${forgeai.retention.interval:5m}")
+    public void scheduledRun() {
+        if (properties.isEnabled()) {
+            run();
+        }
+    }
+
+    /**
+     * Applies the retention policy once and returns the resulting report.
+     * A call while a run is in progress only returns the report.
+     */
+    public StorageReportResponse run() {
+        if (!runLock.tryLock()) {
+            return report();
+        }
+        try {
+            Instant now = Instant.now();
+            evictIdleAssets(now);
+
+            List<FileStorageService.StoredProject> projects = new ArrayList<>();
+            for (FileStorageService.StoredProject project : fileStorageService.listProjects()) {
+                Instant lastAccess = accessTracker.lastAccess(project.projectId(), project.updatedAt());
+                if (!project.cold() && lastAccess.isBefore(now.minus(properties.getWarmIdle()))) {
+                    archive(project).ifPresent(projects::add);
+                } else if (project.cold() && lastAccess.isBefore(now.minus(properties.getColdIdle()))) {
+                    delete(project);
+                } else {
+                    projects.add(project);
+                }
+            }
+            enforceQuota(projects);
+
+            fileStorageService.collectGarbage();
+            lastRun = now;
+        } catch (RuntimeException e) {
+            logger.error("Retention run failed: {}", e.getMessage(), e);
+        } finally {
+            runLock.unlock();
+        }
+        return report();
+    }
+
+    public StorageReportResponse report() {
+        Map<String, Long> hot = previewAssetCache.bytesByProject();
+        int warmProjects = 0;
+        int coldProjects = 0;
+        long warmBytes = 0;
+        long coldBytes = 0;
+        for (FileStorageService.StoredProject project : fileStorageService.listProjects()) {
+            if (project.cold()) {
+                coldProjects++;
+                coldBytes += project.bytes();
+            } else {
+                warmProjects++;
+                warmBytes += project.bytes();
+            }
+        }
+
+        return new StorageReportResponse(
+                lastRun,
+                properties.getQuota().toBytes(),
+                new StorageReportResponse.Tier(hot.size(),
+                        hot.values().stream().mapToLong(Long::longValue).sum()),
+                new StorageReportResponse.Tier(warmProjects, warmBytes),
+                new StorageReportResponse.Tier(coldProjects, coldBytes),
+                new StorageReportResponse.Evictions((long) hotEvictions.count(), (long) warmEvictions.count(),
+                        (long) coldEvictions.count()));
+    }
+
+    private void evictIdleAssets(Instant now) {
+        Instant idleBefore = now.minus(properties.getHotIdle());
+        for (String projectId : previewAssetCache.bytesByProject().keySet()) {
+            if (accessTracker.lastAccess(projectId, Instant.EPOCH).isBefore(idleBefore)) {
+                previewAssetCache.evictProject(projectId);
+                hotEvictions.increment();
+            }
+        }
+    }
+
+    // Archives warm projects, then deletes cold ones, least recently used
+    // first, until the stored bytes fit the quota
+    private void enforceQuota(List<FileStorageService.StoredProject> projects) {
+        long quota = properties.getQuota().toBytes();
+        long total = projects.stream().mapToLong(FileStorageService.StoredProject::bytes).sum();
+        if (total <= quota) {
+            return;
+        }
+
+        List<FileStorageService.StoredProject> byLastAccess = projects.stream()
+                .sorted(Comparator.comparing(
+                        project -> accessTracker.lastAccess(project.projectId(), project.updatedAt())))
+                .toList();
+        List<FileStorageService.StoredProject> cold = new ArrayList<>();
+        for (FileStorageService.StoredProject project : byLastAccess) {
+            if (project.cold()) {
+                cold.add(project);
+            } else if (total > quota) {
+                Optional<FileStorageService.StoredProject> archived = archive(project);
+                if (archived.isPresent()) {
+                    total += archived.get().bytes() - project.bytes();
+                    cold.add(archived.get());
+                }
+            }
+        }
+        for (FileStorageService.StoredProject project : cold) {
+            if (total <= quota) {
+                break;
+            }
+            delete(project);
+            total -= project.bytes();
+        }
+        logger.info("Retention brought stored bytes to {} of {} quota", total, quota);
+    }
+
+    private Optional<FileStorageService.StoredProject> archive(FileStorageService.StoredProject project) {
+        if (!fileStorageService.archiveProject(project.projectId())) {
+            return Optional.empty();
+        }
+        warmEvictions.increment();
+        return fileStorageService.storedProject(project.projectId());
+    }
+
+    private void delete(FileStorageService.StoredProject project) {
+        if (fileStorageService.deleteProject(project.projectId())) {
+            accessTracker.forget(project.projectId());
+            coldEvictions.increment();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.UpstreamProperties;
+import com.forgeai.backend.exception.UpstreamBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Fails OpenRouter calls fast while the provider is unhealthy. The circuit
+ * opens when at least {@code failure-rate} of the last {@code window} calls
+ * failed with a 5xx, 429, timeout or connection error. After
+ * {@code open-duration} a few trial calls are let through, and the circuit
+ * closes again once they all succeed.
+ * <p>
+ * A call counts as a success once the first token arrives. Cancelled calls
+ * and errors caused by the request itself are not counted.
+ */
+@Component
+public class UpstreamCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final UpstreamProperties.Circuit properties;
+    private final LongSupplier nanoClock;
+    private final boolean[] failures;
+    private int outcomeCount;
+    private int outcomeNext;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public UpstreamCircuitBreaker(UpstreamProperties upstreamProperties, MeterRegistry meterRegistry) {
+        this(upstreamProperties, meterRegistry, System::nanoTime);
+    }
+
+    UpstreamCircuitBreaker(UpstreamProperties upstreamProperties, MeterRegistry meterRegistry,
+            LongSupplier nanoClock) {
+        this.properties = upstreamProperties.getCircuit();
+        this.nanoClock = nanoClock;
+        this.failures = new boolean[properties.getWindow()];
+        this.rejectedCounter = Counter.builder("forgeai.upstream.circuit.rejected")
+                .description("Calls failed fast because the circuit was open")
+                .register(meterRegistry);
+        for (State value : State.values()) {
+            Gauge.builder("forgeai.upstream.circuit.state", this, breaker -> breaker.state() == value ? 1 : 0)
+                    .tag("state", value.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+    }
+
+    public <T> Flux<T> protect(Flux<T> call) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            if (!tryAcquire()) {
+                rejectedCounter.increment();
+                return Flux.error(new UpstreamBusyException(
+                        "The AI provider is failing right now, please try again shortly"));
+            }
+            AtomicBoolean done = new AtomicBoolean();
+            return call
+                    .doOnNext(value -> {
+                        if (done.compareAndSet(false, true)) {
+                            onSuccess();
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            onSuccess();
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (done.compareAndSet(false, true)) {
+                            if (UpstreamErrors.isRetryable(e)) {
+                                onFailure();
+                            } else {
+                                onIgnored();
+                            }
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            onIgnored();
+                        }
+                    });
+        });
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < properties.getOpenDuration().toNanos()) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= properties.getHalfOpenCalls()) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    private synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            trialsSucceeded++;
+            if (trialsSucceeded >= properties.getHalfOpenCalls()) {
+                outcomeCount = 0;
+                outcomeNext = 0;
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (outcomeCount >= properties.getMinCalls() && failureRate() >= properties.getFailureRate()) {
+                open();
+            }
+        }
+    }
+
+    // Frees the trial slot so the half-open state cannot get stuck
+    private synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        transition(State.OPEN);
+    }
+
+    private void transition(State next) {
+        if (state != next) {
+            logger.warn("Upstream circuit {} -> {}", state, next);
+            state = next;
+        }
+    }
+
+    private void record(boolean failed) {
+        failures[outcomeNext] = failed;
+        outcomeNext = (outcomeNext + 1) % failures.length;
+        outcomeCount = Math.min(outcomeCount + 1, failures.length);
+    }
+
+    private double failureRate() {
+        int failed = 0;
+        for (int i = 0; i < outcomeCount; i++) {
+            if (failures[i]) {
+                failed++;
+            }
+        }
+        return (double) failed / outcomeCount;
+    }
+}
@@ -0,0 +1,85 @@
+package com.forgeai.backend.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classifies failures of OpenRouter calls on either transport.
+ */
+final class UpstreamErrors {
+
+    private UpstreamErrors() {
+    }
+
+    /** The provider or model is unavailable or overloaded, rather than the request being bad. */
+    static boolean isRetryable(Throwable e) {
+        int status = status(e);
+        if (status > 0) {
+            return status == 429 || status >= 500;
+        }
+        return e instanceof TimeoutException
+                || e instanceof WebClientRequestException
+                || e instanceof ResourceAccessException;
+    }
+
+    /** The provider is telling us to slow down: a 429 or a timeout. */
+    static boolean isOverload(Throwable e) {
+        if (status(e) == 429) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Retry-After of an error response, in seconds or as an HTTP date. */
+    static Optional<Duration> retryAfter(Throwable e) {
+        HttpHeaders headers = null;
+        if (e instanceof WebClientResponseException response) {
+            headers = response.getHeaders();
+        } else if (e instanceof RestClientResponseException response) {
+            headers = response.getResponseHeaders();
+        }
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim()))));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                Duration wait = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return Optional.of(wait.isNegative() ? Duration.ZERO : wait);
+            } catch (DateTimeParseException notDate) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static int status(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().value();
+        }
+        if (e instanceof RestClientResponseException response) {
+            return response.getStatusCode().value();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,296 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.UpstreamProperties;
+import com.forgeai.backend.exception.UpstreamBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore for OpenRouter calls. Waiters are parked as pending Monos
+ * rather than blocked threads, so thousands of queued requests cost no
+ * threads at all.
+ * <p>
+ * Waiters are queued per {@link Caller} and freed slots go to the callers in
+ * deficit round robin. Each caller gets slots in proportion to its weight,
+ * and FIFO order holds within a caller. One client with many queued calls
+ * therefore cannot starve the others.
+ * <p>
+ * With {@code forgeai.upstream.adaptive.enabled} the number of slots follows
+ * an AIMD limit. It starts at {@code max-concurrent} and grows by about one
+ * slot per limit's worth of successful calls. It is cut by the backoff ratio
+ * when a call gets a 429, times out or waits longer than the latency
+ * threshold for its first token. Only calls started after the last cut can
+ * cut it again, so a burst of failures shrinks the limit once.
+ */
+@Component
+public class UpstreamLimiter {
+
+    private final UpstreamProperties properties;
+    private final Map<String, CallerQueue> queues = new HashMap<>();
+    private final Deque<CallerQueue> rotation = new ArrayDeque<>();
+    private int waiting;
+    private int inUse;
+    private double limit;
+    private long lastDecrease;
+
+    private final Timer waitTimer;
+    private final Counter queueFullCounter;
+    private final Counter timeoutCounter;
+
+    public UpstreamLimiter(UpstreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getMaxConcurrent();
+        this.lastDecrease = System.nanoTime();
+        this.waitTimer = Timer.builder("forgeai.upstream.permit.wait")
+                .description("Time spent waiting for an upstream call slot")
+                .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("forgeai.upstream.permit.rejected")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("forgeai.upstream.permit.rejected")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("forgeai.upstream.permits.in-use", this, UpstreamLimiter::inUse)
+                .register(meterRegistry);
+        Gauge.builder("forgeai.upstream.permits.waiting", this, UpstreamLimiter::waiting)
+                .register(meterRegistry);
+        Gauge.builder("forgeai.upstream.permits.limit", this, UpstreamLimiter::capacity)
+                .register(meterRegistry);
+        Gauge.builder("forgeai.upstream.permits.waiting.callers", this, UpstreamLimiter::waitingCallers)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the call once a slot is free and frees it when the call
+     * completes, fails or is cancelled.
+     */
+    public <T> Flux<T> limit(Supplier<? extends Publisher<T>> call) {
+        return Flux.usingWhen(
+                acquire(),
+                permit -> Flux.from(call.get()).doOnNext(value -> permit.firstElement()),
+                permit -> Mono.fromRunnable(() -> permit.release(permit.slow() ? Outcome.DROPPED : Outcome.SUCCESS)),
+                (permit, e) -> Mono.fromRunnable(
+                        () -> permit.release(UpstreamErrors.isOverload(e) ? Outcome.DROPPED : Outcome.IGNORED)),
+                permit -> Mono.fromRunnable(() -> permit.release(Outcome.IGNORED)));
+    }
+
+    private Mono<Permit> acquire() {
+        Duration timeout = properties.getAcquireTimeout();
+
+        return Mono.deferContextual(context -> Mono.<Permit>create(sink -> {
+            Waiter waiter = new Waiter(sink, Caller.from(context), System.nanoTime());
+            sink.onCancel(() -> cancel(waiter));
+
+            synchronized (this) {
+                if (waiter.cancelled) {
+                    return;
+                }
+                if (inUse < capacity() && waiting == 0) {
+                    inUse++;
+                    waiter.permit.grant();
+                } else if (waiting < properties.getMaxQueued()) {
+                    enqueue(waiter);
+                    return;
+                }
+            }
+
+            if (waiter.permit.granted) {
+                deliver(waiter);
+            } else {
+                queueFullCounter.increment();
+                sink.error(new UpstreamBusyException("Too many generations waiting for the AI provider"));
+            }
+        })).timeout(timeout, Mono.defer(() -> {
+            timeoutCounter.increment();
+            return Mono.error(new UpstreamBusyException(
+                    "Timed out after " + timeout.toSeconds() + "s waiting for the AI provider"));
+        }));
+    }
+
+    private void release(Permit permit, Outcome outcome) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            adjust(permit, outcome);
+            inUse--;
+            // The limit may have grown or shrunk, so wake as many as fit now
+            Waiter next;
+            while (inUse < capacity() && (next = pollNext()) != null) {
+                next.permit.grant();
+                inUse++;
+                granted.add(next);
+            }
+        }
+        granted.forEach(this::deliver);
+    }
+
+    private void adjust(Permit permit, Outcome outcome) {
+        UpstreamProperties.Adaptive adaptive = properties.getAdaptive();
+        if (!adaptive.isEnabled()) {
+            return;
+        }
+        if (outcome == Outcome.SUCCESS) {
+            limit = Math.min(properties.getMaxConcurrent(), limit + 1 / limit);
+        } else if (outcome == Outcome.DROPPED && permit.grantedAt - lastDecrease >= 0) {
+            limit = Math.max(adaptive.getMinConcurrent(), limit * adaptive.getBackoffRatio());
+            lastDecrease = System.nanoTime();
+        }
+    }
+
+    private synchronized int capacity() {
+        return properties.getAdaptive().isEnabled() ? (int) limit : properties.getMaxConcurrent();
+    }
+
+    private void cancel(Waiter waiter) {
+        synchronized (this) {
+            waiter.cancelled = true;
+            if (dequeue(waiter) || !waiter.permit.granted) {
+                return;
+            }
+        }
+        // Granted but possibly never delivered: hand the slot back
+        waiter.permit.release(Outcome.IGNORED);
+    }
+
+    private void enqueue(Waiter waiter) {
+        CallerQueue queue = queues.computeIfAbsent(waiter.caller.id(), CallerQueue::new);
+        if (queue.waiters.isEmpty()) {
+            rotation.addLast(queue);
+        }
+        queue.weight = Math.max(waiter.caller.weight(), CallerQueue.MIN_WEIGHT);
+        queue.waiters.addLast(waiter);
+        waiting++;
+    }
+
+    private Waiter pollNext() {
+        while (!rotation.isEmpty()) {
+            CallerQueue head = rotation.peekFirst();
+            if (head.deficit >= 1) {
+                head.deficit -= 1;
+                Waiter next = head.waiters.pollFirst();
+                waiting--;
+                if (head.waiters.isEmpty()) {
+                    rotation.pollFirst();
+                    queues.remove(head.id);
+                }
+                return next;
+            }
+            // Turn used up: top up by the weight and go to the back
+            rotation.pollFirst();
+            head.deficit += head.weight;
+            rotation.addLast(head);
+        }
+        return null;
+    }
+
+    private boolean dequeue(Waiter waiter) {
+        CallerQueue queue = queues.get(waiter.caller.id());
+        if (queue == null || !queue.waiters.remove(waiter)) {
+            return false;
+        }
+        waiting--;
+        if (queue.waiters.isEmpty()) {
+            rotation.remove(queue);
+            queues.remove(queue.id);
+        }
+        return true;
+    }
+
+    private void deliver(Waiter waiter) {
+        waitTimer.record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+        waiter.sink.success(waiter.permit);
+    }
+
+    private synchronized int inUse() {
+        return inUse;
+    }
+
+    synchronized int waiting() {
+        return waiting;
+    }
+
+    private synchronized int waitingCallers() {
+        return rotation.size();
+    }
+
+    private final class Waiter {
+        private final MonoSink<Permit> sink;
+        private final Caller caller;
+        private final long enqueuedAt;
+        private final Permit permit = new Permit();
+        private boolean cancelled;
+
+        private Waiter(MonoSink<Permit> sink, Caller caller, long enqueuedAt) {
+            this.sink = sink;
+            this.caller = caller;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final class CallerQueue {
+        private static final double MIN_WEIGHT = 0.01;
+
+        private final String id;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private double weight = 1;
+        private double deficit;
+
+        private CallerQueue(String id) {
+            this.id = id;
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        /** Overload signal: 429, timeout or a slow first token */
+        DROPPED,
+        /** Cancelled or failed for reasons that say nothing about load */
+        IGNORED
+    }
+
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean granted;
+        private volatile long grantedAt;
+        private volatile long firstElementAt;
+
+        void grant() {
+            grantedAt = System.nanoTime();
+            granted = true;
+        }
+
+        void firstElement() {
+            if (firstElementAt == 0) {
+                firstElementAt = System.nanoTime();
+            }
+        }
+
+        boolean slow() {
+            long threshold = properties.getAdaptive().getLatencyThreshold().toNanos();
+            return firstElementAt != 0 && firstElementAt - grantedAt > threshold;
+        }
+
+        void release(Outcome outcome) {
+            if (granted && released.compareAndSet(false, true)) {
+                UpstreamLimiter.this.release(this, outcome);
+            }
+        }
+    }
+}
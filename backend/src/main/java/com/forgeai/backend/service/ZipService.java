@@ -1,64 +1,128 @@
 package com.forgeai.backend.service;
 
+import com.forgeai.backend.config.ZipProperties;
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.util.Hashing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.FileOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+/**
+ * Builds project archives on download rather than on every save. Archives
+ * are zipped in one pass from the stored file contents and cached by content
+ * hash, so unchanged projects (and identical ones) are zipped once.
+ */
 @Service
 public class ZipService {
 
     private static final Logger logger = LoggerFactory.getLogger(ZipService.class);
-    private static final String BASE_FOLDER = "generated-projects";
-    private static final String ZIP_FOLDER = "generated";
+    // Fixed entry timestamps keep rebuilt archives byte-identical for the same
+    // content, so the content-hash ETag stays valid for Range requests
+    private static final long ENTRY_TIME = 315532800000L;
 
-    public void zipProject(String projectId) {
-        Path sourceDirPath = Paths.get(BASE_FOLDER, projectId);
-        Path zipDirPath = Paths.get(ZIP_FOLDER);
-        Path zipFilePath = Paths.get(ZIP_FOLDER, projectId + ".zip");
+    private final FileStorageService fileStorageService;
+    private final ZipProperties properties;
+    private final PipelineMetrics metrics;
+    private final LinkedHashMap<String, ProjectArchive> archives = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
 
-        if (!Files.exists(sourceDirPath)) {
-            logger.error("Source directory does not exist: {}", sourceDirPath.toAbsolutePath());
-            return;
+    public ZipService(FileStorageService fileStorageService, ZipProperties properties, PipelineMetrics metrics) {
+        this.fileStorageService = fileStorageService;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Archive of the given version, or of the current version when
+     * {@code version} is null.
+     */
+    public Optional<ProjectArchive> archive(String projectId, Integer version) {
+        List<GenerateResponse.GeneratedFile> files = fileStorageService.loadProjectFiles(projectId, version).stream()
+                .sorted(Comparator.comparing(GenerateResponse.GeneratedFile::getPath))
+                .toList();
+        if (files.isEmpty()) {
+            return Optional.empty();
         }
 
-        // Create zip directory if it doesn't exist
-        try {
-            Files.createDirectories(zipDirPath);
-        } catch (IOException e) {
-            logger.error("Failed to create zip directory: {}", e.getMessage());
-            throw new RuntimeException("Could not create zip directory", e);
+        String contentHash = contentHash(files);
+        ProjectArchive cached = lookup(contentHash);
+        if (cached != null) {
+            return Optional.of(cached);
         }
 
-        try (FileOutputStream fos = new FileOutputStream(zipFilePath.toFile());
-                ZipOutputStream zos = new ZipOutputStream(fos)) {
-
-            Files.walkFileTree(sourceDirPath, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    // Only include HTML, CSS, and JS files
-                    String fileName = file.getFileName().toString().toLowerCase();
-                    if (fileName.endsWith(".html") || fileName.endsWith(".css") || fileName.endsWith(".js")) {
-                        // Create relative path for the zip entry (flatten to root)
-                        String relativePath = file.getFileName().toString();
-                        zos.putNextEntry(new ZipEntry(relativePath));
-                        Files.copy(file, zos);
-                        zos.closeEntry();
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-            });
-
-            logger.info("Project zipped successfully: {}", zipFilePath.toAbsolutePath());
+        byte[] content = metrics.time(PipelineMetrics.tag(PipelineMetrics.Asset.DOWNLOAD), PipelineMetrics.Stage.ZIP,
+                () -> zip(files));
+        ProjectArchive archive = new ProjectArchive(content, "\"" + contentHash + "\"");
+        store(contentHash, archive);
+        logger.info("Project zipped: {} ({} bytes)", projectId, archive.content().length);
+        return Optional.of(archive);
+    }
+
+    private static byte[] zip(List<GenerateResponse.GeneratedFile> files) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(out)) {
+            for (GenerateResponse.GeneratedFile file : files) {
+                // Flatten to the archive root
+                String path = file.getPath();
+                ZipEntry entry = new ZipEntry(path.substring(path.lastIndexOf('/') + 1));
+                entry.setTime(ENTRY_TIME);
+                zos.putNextEntry(entry);
+                zos.write(file.getContent().getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
         } catch (IOException e) {
-            logger.error("Failed to zip project {}: {}", projectId, e.getMessage());
             throw new RuntimeException("Could not zip project", e);
         }
+        return out.toByteArray();
+    }
+
+    private static String contentHash(List<GenerateResponse.GeneratedFile> files) {
+        MessageDigest digest = Hashing.sha256();
+        for (GenerateResponse.GeneratedFile file : files) {
+            digest.update(file.getPath().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(file.getContent().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private synchronized ProjectArchive lookup(String contentHash) {
+        return archives.get(contentHash);
+    }
+
+    private synchronized void store(String contentHash, ProjectArchive archive) {
+        long maxBytes = properties.getCacheMaxSize().toBytes();
+        if (archive.content().length > maxBytes / 4) {
+            return;
+        }
+
+        ProjectArchive previous = archives.put(contentHash, archive);
+        if (previous != null) {
+            totalBytes -= previous.content().length;
+        }
+        totalBytes += archive.content().length;
+
+        Iterator<ProjectArchive> it = archives.values().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().content().length;
+            it.remove();
+        }
+    }
+
+    public record ProjectArchive(byte[] content, String etag) {
     }
 }
@@ -0,0 +1,39 @@
+package com.forgeai.backend.storage;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage: a body is stored once under the hex SHA-256 of
+ * its bytes, however many projects or versions reference it.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the content unless a blob with the same hash already exists and
+     * returns its hash.
+     */
+    String put(byte[] content);
+
+    Optional<byte[]> get(String hash);
+
+    /**
+     * Read-only view of the blob. Stores that can serve it without copying
+     * (e.g. from a mapped file) override this.
+     */
+    default Optional<ByteBuffer> readBuffer(String hash) {
+        return get(hash).map(content -> ByteBuffer.wrap(content).asReadOnlyBuffer());
+    }
+
+    /** Size in bytes of the blob, or 0 if it does not exist. */
+    long sizeOf(String hash);
+
+    /**
+     * Removes the blob. Only garbage collection may call this, as other
+     * manifests may still reference the same content.
+     */
+    void remove(String hash);
+
+    List<String> hashes();
+}
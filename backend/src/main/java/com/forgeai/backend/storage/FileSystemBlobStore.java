@@ -0,0 +1,119 @@
+package com.forgeai.backend.storage;
+
+import com.forgeai.backend.config.StorageProperties;
+import com.forgeai.backend.util.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Blobs as files under {@code <base>/blobs/<first two hex chars>/<hash>},
+ * written through a temp file and an atomic rename so a blob is either
+ * absent or complete.
+ */
+@Component
+@ConditionalOnProperty(prefix = "forgeai.storage", name = "engine", havingValue = "files", matchIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+    private final Path blobsFolder;
+    private final Path tempFolder;
+    private final Counter writtenCounter;
+    private final Counter deduplicatedCounter;
+
+    public FileSystemBlobStore(StorageProperties properties, MeterRegistry meterRegistry) {
+        this.blobsFolder = properties.getBaseFolder().resolve("blobs");
+        this.tempFolder = properties.getBaseFolder().resolve("tmp");
+        this.writtenCounter = Counter.builder("forgeai.storage.blobs").tag("result", "written")
+                .register(meterRegistry);
+        this.deduplicatedCounter = Counter.builder("forgeai.storage.blobs").tag("result", "deduplicated")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String put(byte[] content) {
+        String hash = Hashing.sha256Hex(content);
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            deduplicatedCounter.increment();
+            return hash;
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            Files.createDirectories(tempFolder);
+            Path temp = Files.createTempFile(tempFolder, hash, ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write blob " + hash, e);
+        }
+        writtenCounter.increment();
+        return hash;
+    }
+
+    @Override
+    public Optional<byte[]> get(String hash) {
+        try {
+            return Optional.of(Files.readAllBytes(pathFor(hash)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read blob " + hash, e);
+        }
+    }
+
+    @Override
+    public long sizeOf(String hash) {
+        try {
+            return Files.size(pathFor(hash));
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read blob " + hash, e);
+        }
+    }
+
+    @Override
+    public void remove(String hash) {
+        try {
+            Files.deleteIfExists(pathFor(hash));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not delete blob " + hash, e);
+        }
+    }
+
+    @Override
+    public List<String> hashes() {
+        if (!Files.isDirectory(blobsFolder)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(blobsFolder, 2)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list blobs", e);
+        }
+    }
+
+    private Path pathFor(String hash) {
+        if (hash.length() < 3 || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return blobsFolder.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+}
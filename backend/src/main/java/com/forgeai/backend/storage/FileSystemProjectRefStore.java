@@ -0,0 +1,96 @@
+package com.forgeai.backend.storage;
+
+import com.forgeai.backend.config.StorageProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * One small file per project under {@code <base>/refs}, replaced by atomic
+ * rename.
+ */
+@Component
+@ConditionalOnProperty(prefix = "forgeai.storage", name = "engine", havingValue = "files", matchIfMissing = true)
+public class FileSystemProjectRefStore implements ProjectRefStore {
+
+    private final Path refsFolder;
+    private final Path tempFolder;
+
+    public FileSystemProjectRefStore(StorageProperties properties) {
+        this.refsFolder = properties.getBaseFolder().resolve("refs");
+        this.tempFolder = properties.getBaseFolder().resolve("tmp");
+    }
+
+    @Override
+    public Optional<byte[]> read(String projectId) {
+        if (!isValid(projectId)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readAllBytes(pathFor(projectId)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read ref for project " + projectId, e);
+        }
+    }
+
+    @Override
+    public void write(String projectId, byte[] ref) {
+        Path target = pathFor(projectId);
+        try {
+            Files.createDirectories(refsFolder);
+            Files.createDirectories(tempFolder);
+            Path temp = Files.createTempFile(tempFolder, "ref-", ".tmp");
+            try {
+                Files.write(temp, ref);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write ref for project " + projectId, e);
+        }
+    }
+
+    @Override
+    public void delete(String projectId) {
+        try {
+            Files.deleteIfExists(pathFor(projectId));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not delete ref for project " + projectId, e);
+        }
+    }
+
+    @Override
+    public List<String> projectIds() {
+        if (!Files.isDirectory(refsFolder)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(refsFolder)) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list project refs", e);
+        }
+    }
+
+    private Path pathFor(String projectId) {
+        if (!isValid(projectId)) {
+            throw new IllegalArgumentException("Invalid project id: " + projectId);
+        }
+        return refsFolder.resolve(projectId);
+    }
+
+    private static boolean isValid(String projectId) {
+        return !projectId.isEmpty() && projectId.chars()
+                .allMatch(c -> Character.isLetterOrDigit(c) || c == '-' || c == '_');
+    }
+}
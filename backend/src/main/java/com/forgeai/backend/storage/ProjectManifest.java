@@ -0,0 +1,34 @@
+package com.forgeai.backend.storage;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The files of one project version: each path and the hash of its blob.
+ * Entries are kept sorted by path so identical projects share a manifest.
+ */
+public record ProjectManifest(List<Entry> files) {
+
+    /**
+     * {@code minified} and {@code gzip} name the blobs served in previews
+     * instead of {@code blob}, when they were stored at save time.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(String path, String blob, long size, String minified, String gzip) {
+
+        public Entry(String path, String blob, long size) {
+            this(path, blob, size, null, null);
+        }
+    }
+
+    public ProjectManifest {
+        files = files.stream().sorted(Comparator.comparing(Entry::path)).toList();
+    }
+
+    public Optional<Entry> find(String path) {
+        return files.stream().filter(entry -> entry.path().equals(path)).findFirst();
+    }
+}
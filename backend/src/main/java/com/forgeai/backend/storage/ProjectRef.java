@@ -0,0 +1,79 @@
+package com.forgeai.backend.storage;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Contents of a project's ref: every version the project has had, each an
+ * immutable manifest, and which of them is current. Rolling back only moves
+ * the current pointer. A cold project keeps only its current version, whose
+ * files are stored as one compressed {@code archive} blob instead of a
+ * manifest.
+ * <p>
+ * {@code bytes} is the logical size of a warm project's history, kept up to
+ * date on every save so it can be reported without reading the manifests:
+ * the first version's files plus the files each later version changed. It
+ * is null in refs written before it existed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProjectRef(int current, List<Version> versions, String archive, Long bytes) {
+
+    public record Version(int number, String manifest, Instant createdAt, List<String> changedPaths) {
+    }
+
+    public static ProjectRef initial(String manifest, List<String> paths, Instant createdAt, long bytes) {
+        return new ProjectRef(1, List.of(new Version(1, manifest, createdAt, paths)), null, bytes);
+    }
+
+    /** A cold ref for files that only exist as an archive, such as a migrated legacy project. */
+    public static ProjectRef archived(String archiveHash, List<String> paths, Instant createdAt) {
+        return new ProjectRef(1, List.of(new Version(1, null, createdAt, paths)), archiveHash, null);
+    }
+
+    @JsonIgnore
+    public boolean isCold() {
+        return archive != null;
+    }
+
+    public Version currentVersion() {
+        return version(current)
+                .orElseThrow(() -> new IllegalStateException("Current version " + current + " is missing"));
+    }
+
+    public Optional<Version> version(int number) {
+        return versions.stream().filter(version -> version.number() == number).findFirst();
+    }
+
+    /** {@code changedBytes} is the size of the files the new version changed. */
+    public ProjectRef append(String manifest, List<String> changedPaths, Instant createdAt, long changedBytes) {
+        int next = versions.stream().mapToInt(Version::number).max().orElse(0) + 1;
+        List<Version> appended = new ArrayList<>(versions);
+        appended.add(new Version(next, manifest, createdAt, changedPaths));
+        return new ProjectRef(next, List.copyOf(appended), null, bytes == null ? null : bytes + changedBytes);
+    }
+
+    public ProjectRef withCurrent(int number) {
+        return new ProjectRef(number, versions, null, bytes);
+    }
+
+    /** Drops the history and points the current version at an archive blob. */
+    public ProjectRef cold(String archiveHash) {
+        Version version = currentVersion();
+        return new ProjectRef(current,
+                List.of(new Version(version.number(), null, version.createdAt(), version.changedPaths())),
+                archiveHash, null);
+    }
+
+    /** Points the current version of a cold ref back at a manifest of {@code bytes} in total. */
+    public ProjectRef warm(String manifest, long bytes) {
+        Version version = currentVersion();
+        return new ProjectRef(current,
+                List.of(new Version(version.number(), manifest, version.createdAt(), version.changedPaths())),
+                null, bytes);
+    }
+}
@@ -0,0 +1,20 @@
+package com.forgeai.backend.storage;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Mutable per-project pointer to the project's current state. Everything it
+ * points to lives in the {@link BlobStore} and is immutable.
+ */
+public interface ProjectRefStore {
+
+    Optional<byte[]> read(String projectId);
+
+    /** Replaces the ref in one step; readers see either the old or the new value. */
+    void write(String projectId, byte[] ref);
+
+    void delete(String projectId);
+
+    List<String> projectIds();
+}
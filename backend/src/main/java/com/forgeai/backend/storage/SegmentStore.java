@@ -0,0 +1,523 @@
+package com.forgeai.backend.storage;
+
+import com.forgeai.backend.config.StorageProperties;
+import com.forgeai.backend.util.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Storage engine that appends blobs and project refs to large segment files
+ * instead of creating a file per object. An in-memory index maps each blob
+ * hash and project id to its record; it is rebuilt by scanning the segments
+ * on startup. Reads are slices of the memory-mapped segment, so blob bodies
+ * are not copied onto the heap.
+ * <p>
+ * Record layout: magic, type, key length, value length, CRC32 of key and
+ * value, key, value. A segment is forced to disk when a new one takes over.
+ * A torn record at the end of the last segment (from a crash mid-append) is
+ * truncated on startup. Damage anywhere else is skipped up to the next valid
+ * record, logged and counted, and the file is left as it is: such segments
+ * are not compacted, so the damaged bytes stay available for recovery.
+ * Superseded refs are reclaimed by background compaction, which rewrites the
+ * live records of mostly-dead segments into the active one and deletes the
+ * old file; so are blobs removed by garbage collection.
+ */
+@Component
+@ConditionalOnProperty(prefix = "forgeai.storage", name = "engine", havingValue = "segments")
+public class SegmentStore implements BlobStore, ProjectRefStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentStore.class);
+    private static final int MAGIC = 0x46475331;
+    private static final int HEADER_BYTES = 17;
+    private static final byte TYPE_BLOB = 1;
+    private static final byte TYPE_REF = 2;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path segmentsFolder;
+    private final long maxSegmentBytes;
+    private final double compactionThreshold;
+    private final Map<String, Location> blobs = new ConcurrentHashMap<>();
+    private final Map<String, Location> refs = new ConcurrentHashMap<>();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile Segment active;
+
+    private final Counter writtenCounter;
+    private final Counter deduplicatedCounter;
+    private final Counter compactedCounter;
+    private final Counter damagedCounter;
+
+    public SegmentStore(StorageProperties properties, MeterRegistry meterRegistry) {
+        StorageProperties.Segments config = properties.getSegments();
+        this.segmentsFolder = properties.getBaseFolder().resolve("segments");
+        this.maxSegmentBytes = config.getMaxSize().toBytes();
+        this.compactionThreshold = config.getCompactionThreshold();
+        if (maxSegmentBytes <= 0 || maxSegmentBytes > MAX_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("forgeai.storage.segments.max-size must be between 1B and 1GB");
+        }
+
+        this.writtenCounter = Counter.builder("forgeai.storage.blobs").tag("result", "written")
+                .register(meterRegistry);
+        this.deduplicatedCounter = Counter.builder("forgeai.storage.blobs").tag("result", "deduplicated")
+                .register(meterRegistry);
+        this.compactedCounter = Counter.builder("forgeai.storage.segments.compacted").register(meterRegistry);
+        this.damagedCounter = Counter.builder("forgeai.storage.segments.damaged.bytes")
+                .description("Bytes of damaged records skipped while opening the segments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("forgeai.storage.segments.count", segments, List::size).register(meterRegistry);
+        Gauge.builder("forgeai.storage.segments.bytes", this, store -> store.totalBytes(false))
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("forgeai.storage.segments.live-bytes", this, store -> store.totalBytes(true))
+                .baseUnit("bytes").register(meterRegistry);
+
+        open();
+    }
+
+    @Override
+    public String put(byte[] content) {
+        String hash = Hashing.sha256Hex(content);
+        if (blobs.containsKey(hash)) {
+            deduplicatedCounter.increment();
+            return hash;
+        }
+
+        appendLock.lock();
+        try {
+            if (blobs.containsKey(hash)) {
+                deduplicatedCounter.increment();
+                return hash;
+            }
+            blobs.put(hash, append(TYPE_BLOB, hash, content));
+        } finally {
+            appendLock.unlock();
+        }
+        writtenCounter.increment();
+        return hash;
+    }
+
+    @Override
+    public Optional<byte[]> get(String hash) {
+        return readBuffer(hash).map(SegmentStore::toArray);
+    }
+
+    @Override
+    public Optional<ByteBuffer> readBuffer(String hash) {
+        return Optional.ofNullable(blobs.get(hash)).map(Location::slice);
+    }
+
+    @Override
+    public long sizeOf(String hash) {
+        Location location = blobs.get(hash);
+        return location == null ? 0 : location.length();
+    }
+
+    @Override
+    public void remove(String hash) {
+        appendLock.lock();
+        try {
+            Location removed = blobs.remove(hash);
+            if (removed != null) {
+                removed.segment().liveBytes.addAndGet(-removed.recordBytes());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> hashes() {
+        return List.copyOf(blobs.keySet());
+    }
+
+    @Override
+    public Optional<byte[]> read(String projectId) {
+        return Optional.ofNullable(refs.get(projectId))
+                .filter(location -> location.length() > 0)
+                .map(location -> toArray(location.slice()));
+    }
+
+    @Override
+    public void write(String projectId, byte[] ref) {
+        appendLock.lock();
+        try {
+            Location previous = refs.put(projectId, append(TYPE_REF, projectId, ref));
+            if (previous != null) {
+                previous.segment().liveBytes.addAndGet(-previous.recordBytes());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Deleted refs are kept as empty records so that an older record in a
+     * segment not yet compacted cannot bring the project back on restart.
+     * Compaction drops the marker once no other segment has a record for the
+     * project. Deleted blobs need no marker; one that reappears is
+     * unreferenced and collected again.
+     */
+    @Override
+    public void delete(String projectId) {
+        if (refs.containsKey(projectId)) {
+            write(projectId, new byte[0]);
+        }
+    }
+
+    @Override
+    public List<String> projectIds() {
+        return refs.entrySet().stream()
+                .filter(entry -> entry.getValue().length() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Rewrites the live records of sealed segments whose live ratio is below
+     * the threshold and deletes them. Readers holding slices of a deleted
+     * segment keep working, as the mapping outlives the file.
+     */
+    @Scheduled(fixedDelayString = "${forgeai.storage.segments.compaction-interval:10m}")
+    public void compact() {
+        for (Segment segment : segments) {
+            if (segment == active || segment.size == 0 || segment.damagedBytes > 0) {
+                continue;
+            }
+            double liveRatio = (double) segment.liveBytes.get() / segment.size;
+            if (liveRatio < compactionThreshold) {
+                compact(segment);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                logger.warn("Could not close segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    private void compact(Segment segment) {
+        appendLock.lock();
+        try {
+            long reclaimed = segment.size - segment.liveBytes.get();
+            Set<Segment> written = new HashSet<>();
+            moveLiveRecords(segment, blobs, TYPE_BLOB, written);
+            moveLiveRecords(segment, refs, TYPE_REF, written);
+            // The copies must be durable before the only other copy is deleted
+            for (Segment destination : written) {
+                destination.channel.force(true);
+            }
+            segments.remove(segment);
+            segment.seal();
+            Files.deleteIfExists(segment.path);
+            compactedCounter.increment();
+            logger.info("Compacted segment {}, reclaimed {} bytes", segment.path.getFileName(), reclaimed);
+        } catch (IOException e) {
+            logger.error("Failed to compact segment {}: {}", segment.path, e.getMessage());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void moveLiveRecords(Segment segment, Map<String, Location> index, byte type, Set<Segment> written) {
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment() != segment) {
+                continue;
+            }
+            if (type == TYPE_REF && entry.getValue().length() == 0 && !recordedElsewhere(segment, entry.getKey())) {
+                index.remove(entry.getKey(), entry.getValue());
+            } else {
+                Location moved = append(type, entry.getKey(), toArray(entry.getValue().slice()));
+                entry.setValue(moved);
+                written.add(moved.segment());
+            }
+        }
+    }
+
+    // Superseded records are not indexed, so each segment remembers which refs it has records for
+    private boolean recordedElsewhere(Segment compacted, String projectId) {
+        for (Segment segment : segments) {
+            if (segment != compacted && segment.refKeys.contains(projectId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Caller holds appendLock
+    private Location append(byte type, String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = HEADER_BYTES + keyBytes.length + value.length;
+
+        try {
+            if (active.size > 0 && active.size + recordBytes > maxSegmentBytes) {
+                // Sealed segments are only scanned, never repaired, on startup
+                active.channel.force(true);
+                active = createSegment(active.id + 1);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(keyBytes);
+            crc.update(value);
+            ByteBuffer record = ByteBuffer.allocate(recordBytes)
+                    .putInt(MAGIC)
+                    .put(type)
+                    .putInt(keyBytes.length)
+                    .putInt(value.length)
+                    .putInt((int) crc.getValue())
+                    .put(keyBytes)
+                    .put(value)
+                    .flip();
+
+            Segment segment = active;
+            long offset = segment.size;
+            while (record.hasRemaining()) {
+                segment.channel.write(record, offset + record.position());
+            }
+            segment.size = offset + recordBytes;
+            segment.liveBytes.addAndGet(recordBytes);
+            if (type == TYPE_REF) {
+                segment.refKeys.add(key);
+            }
+            return new Location(segment, offset + HEADER_BYTES + keyBytes.length, value.length, recordBytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not append to segment " + active.path, e);
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(segmentsFolder);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(segmentsFolder)) {
+                files = listing.filter(path -> path.getFileName().toString().matches("segment-\\d+\\.seg"))
+                        .sorted()
+                        .toList();
+            }
+
+            for (int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                Segment segment = new Segment(segmentId(file), file, FileChannel.open(file,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE));
+                scan(segment, i == files.size() - 1);
+                segments.add(segment);
+            }
+
+            active = segments.isEmpty()
+                    ? createSegment(1)
+                    : segments.get(segments.size() - 1);
+            logger.info("Opened {} segment(s) with {} blobs and {} project refs", segments.size(), blobs.size(),
+                    refs.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open segment store in " + segmentsFolder, e);
+        }
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Path file = segmentsFolder.resolve(String.format("segment-%08d.seg", id));
+        Segment segment = new Segment(id, file, FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        forceDirectory();
+        segments.add(segment);
+        return segment;
+    }
+
+    // Makes the new file's directory entry durable; not supported on every platform
+    private void forceDirectory() {
+        try (FileChannel directory = FileChannel.open(segmentsFolder, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not sync {}: {}", segmentsFolder, e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes the records of a segment. Only the tail of the last segment can
+     * be torn by a crash, so only there are trailing invalid bytes truncated;
+     * any other invalid range is skipped up to the next record that checks out.
+     */
+    private void scan(Segment segment, boolean last) throws IOException {
+        long fileSize = segment.channel.size();
+        if (fileSize == 0) {
+            return;
+        }
+        MappedByteBuffer mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+        long position = 0;
+        while (position < fileSize) {
+            long recordBytes = validRecordBytes(mapped, position);
+            if (recordBytes < 0) {
+                long next = nextValidRecord(mapped, position + 1);
+                if (next < 0 && last) {
+                    logger.warn("Truncating {} bytes of incomplete records from {}", fileSize - position,
+                            segment.path);
+                    segment.channel.truncate(position);
+                    fileSize = position;
+                    break;
+                }
+                long damaged = (next < 0 ? fileSize : next) - position;
+                logger.error("Skipping {} damaged bytes at offset {} of {}; records there are lost",
+                        damaged, position, segment.path);
+                segment.damagedBytes += damaged;
+                damagedCounter.increment(damaged);
+                if (next < 0) {
+                    break;
+                }
+                position = next;
+                continue;
+            }
+
+            byte type = mapped.get((int) position + 4);
+            int keyLength = mapped.getInt((int) position + 5);
+            int valueLength = mapped.getInt((int) position + 9);
+            String key = StandardCharsets.UTF_8.decode(
+                    mapped.slice((int) position + HEADER_BYTES, keyLength)).toString();
+            Location location = new Location(segment, position + HEADER_BYTES + keyLength, valueLength,
+                    (int) recordBytes);
+            Location previous = (type == TYPE_BLOB ? blobs : refs).put(key, location);
+            if (type == TYPE_REF) {
+                segment.refKeys.add(key);
+            }
+            if (previous != null) {
+                previous.segment().liveBytes.addAndGet(-previous.recordBytes());
+            }
+            segment.liveBytes.addAndGet(recordBytes);
+            position += recordBytes;
+        }
+
+        segment.size = fileSize;
+        segment.mapped = mapped;
+    }
+
+    // Length of the record at the position, or -1 if none that checks out starts there
+    private static long validRecordBytes(MappedByteBuffer mapped, long position) {
+        long fileSize = mapped.capacity();
+        if (position + HEADER_BYTES > fileSize || mapped.getInt((int) position) != MAGIC) {
+            return -1;
+        }
+        byte type = mapped.get((int) position + 4);
+        int keyLength = mapped.getInt((int) position + 5);
+        int valueLength = mapped.getInt((int) position + 9);
+        long recordBytes = (long) HEADER_BYTES + keyLength + valueLength;
+        if ((type != TYPE_BLOB && type != TYPE_REF) || keyLength < 0 || valueLength < 0
+                || position + recordBytes > fileSize) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(mapped.slice((int) position + HEADER_BYTES, keyLength + valueLength));
+        return (int) crc.getValue() == mapped.getInt((int) position + 13) ? recordBytes : -1;
+    }
+
+    private static long nextValidRecord(MappedByteBuffer mapped, long from) {
+        for (long position = from; position + HEADER_BYTES <= mapped.capacity(); position++) {
+            if (validRecordBytes(mapped, position) >= 0) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private long totalBytes(boolean liveOnly) {
+        return segments.stream().mapToLong(segment -> liveOnly ? segment.liveBytes.get() : segment.size).sum();
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring("segment-".length(), name.length() - ".seg".length()));
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final AtomicLong liveBytes = new AtomicLong();
+        final Set<String> refKeys = ConcurrentHashMap.newKeySet();
+        // Set while opening; a segment with damaged records is kept as it is
+        long damagedBytes;
+        volatile long size;
+        volatile MappedByteBuffer mapped;
+
+        Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        ByteBuffer slice(long offset, int length) {
+            MappedByteBuffer current = mapped;
+            if (current == null || offset + length > current.capacity()) {
+                current = remap(offset + length);
+            }
+            return current.slice((int) offset, length).asReadOnlyBuffer();
+        }
+
+        /**
+         * Maps the whole segment and closes the channel before the file is
+         * deleted. Holds the same lock as {@link #remap}, so no read is
+         * mapping the channel while it closes, and none needs to afterwards.
+         */
+        synchronized void seal() throws IOException {
+            remap(size);
+            channel.close();
+        }
+
+        // The active segment grows after it is mapped; map it again up to its
+        // current size when a read goes past the old mapping
+        private synchronized MappedByteBuffer remap(long required) {
+            if (mapped == null || mapped.capacity() < required) {
+                try {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not map segment " + path, e);
+                }
+            }
+            return mapped;
+        }
+    }
+
+    private record Location(Segment segment, long offset, int length, int recordBytes) {
+
+        ByteBuffer slice() {
+            return segment.slice(offset, length);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.forgeai.backend.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Conservative minification of generated HTML, CSS and JavaScript: comments
+ * and redundant whitespace are removed, and exact duplicates of top-level CSS
+ * rules are dropped in favour of their last occurrence. Strings, regular
+ * expressions, template literals and {@code pre}/{@code textarea} contents are
+ * copied as they are, and line breaks in scripts are kept so automatic
+ * semicolon insertion behaves the same.
+ */
+public final class AssetMinifier {
+
+    private static final String CSS_TIGHT = "{};,>";
+    private static final String JS_REGEX_PRECEDERS = "(,=:[!&|?{};+-*%<>~^";
+    private static final List<String> JS_REGEX_KEYWORDS = List.of("return", "typeof", "case", "do", "else", "in",
+            "of", "void", "delete", "throw", "new", "instanceof");
+
+    private AssetMinifier() {
+    }
+
+    /** Minified content for the path's file type; other files are returned unchanged. */
+    public static String minify(String path, String content) {
+        String name = path.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".html") || name.endsWith(".htm")) {
+            return html(content);
+        }
+        if (name.endsWith(".css")) {
+            return css(content);
+        }
+        if (name.endsWith(".js") || name.endsWith(".mjs")) {
+            return js(content);
+        }
+        return content;
+    }
+
+    public static String css(String css) {
+        StringBuilder out = new StringBuilder(css.length());
+        boolean space = false;
+        int i = 0;
+        while (i < css.length()) {
+            char c = css.charAt(i);
+            if (c == '/' && css.startsWith("*", i + 1)) {
+                int end = css.indexOf("*/", i + 2);
+                i = end < 0 ? css.length() : end + 2;
+                space = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            }
+            if (space && !out.isEmpty() && CSS_TIGHT.indexOf(c) < 0 && CSS_TIGHT.indexOf(last(out)) < 0
+                    && last(out) != ':') {
+                out.append(' ');
+            }
+            space = false;
+            if (c == '"' || c == '\'') {
+                i = copyString(css, i, out);
+                continue;
+            }
+            if (c == '}' && last(out) == ';') {
+                out.setLength(out.length() - 1);
+            }
+            out.append(c);
+            i++;
+        }
+        return dropDuplicateRules(out.toString());
+    }
+
+    /**
+     * A later identical rule overrides every declaration of an earlier one,
+     * so only the last copy of each top-level rule is kept.
+     */
+    private static String dropDuplicateRules(String css) {
+        List<String> rules = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < css.length(); i++) {
+            char c = css.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipString(css, i) - 1;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0 && --depth == 0) {
+                rules.add(css.substring(start, i + 1));
+                start = i + 1;
+            } else if (c == ';' && depth == 0) {
+                rules.add(css.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < css.length()) {
+            rules.add(css.substring(start));
+        }
+
+        Set<String> seen = new HashSet<>();
+        boolean[] keep = new boolean[rules.size()];
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            String rule = rules.get(i);
+            keep[i] = rule.startsWith("@") || seen.add(rule);
+        }
+        StringBuilder out = new StringBuilder(css.length());
+        for (int i = 0; i < rules.size(); i++) {
+            if (keep[i]) {
+                out.append(rules.get(i));
+            }
+        }
+        return out.toString();
+    }
+
+    public static String js(String js) {
+        StringBuilder out = new StringBuilder(js.length());
+        // Open template literals; each level counts the braces of its ${...}
+        Deque<int[]> templates = new ArrayDeque<>();
+        int pendingSpace = 0; // 0 none, 1 space, 2 line break
+        int i = 0;
+        while (i < js.length()) {
+            char c = js.charAt(i);
+            char next = i + 1 < js.length() ? js.charAt(i + 1) : 0;
+
+            if (c == '/' && next == '/') {
+                int end = js.indexOf('\n', i);
+                i = end < 0 ? js.length() : end;
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                int end = js.indexOf("*/", i + 2);
+                int stop = end < 0 ? js.length() : end + 2;
+                pendingSpace = Math.max(pendingSpace, js.substring(i, stop).indexOf('\n') >= 0 ? 2 : 1);
+                i = stop;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = Math.max(pendingSpace, c == '\n' || c == '\r' ? 2 : 1);
+                i++;
+                continue;
+            }
+
+            if (pendingSpace == 2 && !out.isEmpty()) {
+                out.append('\n');
+            } else if (pendingSpace == 1 && !out.isEmpty() && needsSpace(last(out), c)) {
+                out.append(' ');
+            }
+            pendingSpace = 0;
+
+            if (c == '"' || c == '\'') {
+                i = copyString(js, i, out);
+            } else if (c == '`') {
+                i = copyTemplate(js, i, out, templates);
+            } else if (c == '/' && startsRegex(out)) {
+                i = copyRegex(js, i, out);
+            } else if (c == '{' && !templates.isEmpty()) {
+                templates.peek()[0]++;
+                out.append(c);
+                i++;
+            } else if (c == '}' && !templates.isEmpty() && templates.peek()[0] == 0) {
+                // End of a ${...} substitution, back inside the template
+                templates.pop();
+                i = copyTemplate(js, i, out, templates);
+            } else {
+                if (c == '}' && !templates.isEmpty()) {
+                    templates.peek()[0]--;
+                }
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean needsSpace(char before, char after) {
+        if (isWordChar(before) && isWordChar(after)) {
+            return true;
+        }
+        // a + +b, a - -b, and 1 .toString()
+        return (before == '+' || before == '-') && before == after || Character.isDigit(before) && after == '.';
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '\\' || c > 0x7f;
+    }
+
+    private static boolean startsRegex(StringBuilder out) {
+        int end = out.length() - 1;
+        while (end >= 0 && out.charAt(end) == '\n') {
+            end--;
+        }
+        if (end < 0) {
+            return true;
+        }
+        char before = out.charAt(end);
+        if (JS_REGEX_PRECEDERS.indexOf(before) >= 0) {
+            return true;
+        }
+        if (!Character.isLetter(before)) {
+            return false;
+        }
+        int start = end;
+        while (start > 0 && isWordChar(out.charAt(start - 1))) {
+            start--;
+        }
+        return JS_REGEX_KEYWORDS.contains(out.substring(start, end + 1));
+    }
+
+    private static int copyRegex(String js, int start, StringBuilder out) {
+        boolean inClass = false;
+        int i = start + 1;
+        while (i < js.length()) {
+            char c = js.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '\n') {
+                break;
+            }
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                i++;
+                break;
+            }
+            i++;
+        }
+        int end = Math.min(i, js.length());
+        out.append(js, start, end);
+        return end;
+    }
+
+    // Copies template text up to and including the closing backtick, or up to
+    // and including the "${" that opens a substitution
+    private static int copyTemplate(String js, int start, StringBuilder out, Deque<int[]> templates) {
+        int i = start + 1;
+        while (i < js.length()) {
+            char c = js.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '`') {
+                i++;
+                break;
+            }
+            if (c == '$' && i + 1 < js.length() && js.charAt(i + 1) == '{') {
+                i += 2;
+                templates.push(new int[] {0});
+                break;
+            }
+            i++;
+        }
+        int end = Math.min(i, js.length());
+        out.append(js, start, end);
+        return end;
+    }
+
+    public static String html(String html) {
+        StringBuilder out = new StringBuilder(html.length());
+        boolean space = false;
+        int i = 0;
+        while (i < html.length()) {
+            char c = html.charAt(i);
+            if (html.startsWith("<!--", i) && !html.startsWith("<!--[if", i)) {
+                int end = html.indexOf("-->", i + 4);
+                i = end < 0 ? html.length() : end + 3;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            }
+            if (space && !out.isEmpty()) {
+                out.append(' ');
+            }
+            space = false;
+
+            if (c != '<' || !isTagStart(html, i + 1)) {
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            int tagEnd = copyTag(html, i, out);
+            String name = tagName(html, i);
+            if (name.equals("pre") || name.equals("textarea")) {
+                i = copyRaw(html, tagEnd, name, out, content -> content);
+            } else if (name.equals("style")) {
+                i = copyRaw(html, tagEnd, name, out, AssetMinifier::css);
+            } else if (name.equals("script")) {
+                String tag = html.substring(i, tagEnd).toLowerCase(Locale.ROOT);
+                boolean javascript = !tag.contains("type=") || tag.contains("javascript") || tag.contains("module");
+                i = copyRaw(html, tagEnd, name, out, javascript ? AssetMinifier::js : content -> content);
+            } else {
+                i = tagEnd;
+            }
+        }
+        return out.toString();
+    }
+
+    // Whitespace inside the tag is collapsed outside attribute values
+    private static int copyTag(String html, int start, StringBuilder out) {
+        int i = start;
+        char quote = 0;
+        boolean space = false;
+        while (i < html.length()) {
+            char c = html.charAt(i++);
+            if (quote != 0) {
+                out.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && c != '>' && !(c == '/' && i < html.length() && html.charAt(i) == '>')) {
+                out.append(' ');
+            }
+            space = false;
+            out.append(c);
+            if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isTagStart(String html, int i) {
+        return i < html.length() && (Character.isLetter(html.charAt(i)) || html.charAt(i) == '/'
+                || html.charAt(i) == '!');
+    }
+
+    private static String tagName(String html, int start) {
+        int i = start + 1;
+        while (i < html.length() && Character.isLetterOrDigit(html.charAt(i))) {
+            i++;
+        }
+        return html.substring(start + 1, i).toLowerCase(Locale.ROOT);
+    }
+
+    private static int copyRaw(String html, int start, String name, StringBuilder out,
+            UnaryOperator<String> minifier) {
+        int end = indexOfIgnoreCase(html, "</" + name, start);
+        if (end < 0) {
+            end = html.length();
+        }
+        out.append(minifier.apply(html.substring(start, end)));
+        return end;
+    }
+
+    private static int indexOfIgnoreCase(String text, String needle, int from) {
+        for (int i = from; i <= text.length() - needle.length(); i++) {
+            if (text.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int copyString(String text, int start, StringBuilder out) {
+        int end = skipString(text, start);
+        out.append(text, start, end);
+        return end;
+    }
+
+    private static int skipString(String text, int start) {
+        char quote = text.charAt(start);
+        int i = start + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            i++;
+            if (c == quote || c == '\n') {
+                break;
+            }
+        }
+        return Math.min(i, text.length());
+    }
+
+    private static char last(StringBuilder out) {
+        return out.isEmpty() ? 0 : out.charAt(out.length() - 1);
+    }
+}
@@ -0,0 +1,177 @@
+package com.forgeai.backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.forgeai.backend.dto.GenerateResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Incrementally parses a streamed {"files": [{"path": ..., "content": ...}]}
+ * completion and hands back each file as soon as its object is closed.
+ * Code fences and prose around the JSON are skipped without buffering the
+ * whole completion. Not thread-safe: one instance per completion.
+ */
+public class GeneratedFilesStreamParser {
+
+    private static final int FILES_ARRAY_DEPTH = 2;
+    private static final int FILE_OBJECT_DEPTH = 3;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private final StringBuilder pending = new StringBuilder();
+    private boolean started;
+    private boolean finished;
+    private int depth;
+    private boolean inFilesArray;
+    private String path;
+    private String content;
+
+    public GeneratedFilesStreamParser(JsonFactory jsonFactory) {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create streaming JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    public List<GenerateResponse.GeneratedFile> feed(String chunk) {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        pending.append(chunk);
+
+        // Anything before the root object (code fences, prose) is dropped
+        if (!started) {
+            int start = findRootStart();
+            if (start < 0) {
+                return Collections.emptyList();
+            }
+            pending.delete(0, start);
+            started = true;
+        }
+
+        // Keep a trailing high surrogate until its pair arrives so it is not
+        // encoded as a replacement character
+        int end = pending.length();
+        if (Character.isHighSurrogate(pending.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0) {
+            return Collections.emptyList();
+        }
+
+        byte[] bytes = pending.substring(0, end).getBytes(StandardCharsets.UTF_8);
+        pending.delete(0, end);
+        List<GenerateResponse.GeneratedFile> completed = new ArrayList<>();
+
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handleToken(token, completed);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid JSON in model response: " + e.getMessage(), e);
+        }
+
+        return completed;
+    }
+
+    public void finish() {
+        if (!finished) {
+            throw new RuntimeException("Incomplete JSON in model response");
+        }
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private void handleToken(JsonToken token, List<GenerateResponse.GeneratedFile> completed) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                depth++;
+                if (inFilesArray && depth == FILE_OBJECT_DEPTH) {
+                    path = null;
+                    content = null;
+                }
+            }
+            case START_ARRAY -> {
+                depth++;
+                if (depth == FILES_ARRAY_DEPTH && "files".equals(parser.currentName())) {
+                    inFilesArray = true;
+                }
+            }
+            case END_OBJECT -> {
+                if (inFilesArray && depth == FILE_OBJECT_DEPTH) {
+                    completed.add(new GenerateResponse.GeneratedFile(path, content));
+                }
+                closeScope();
+            }
+            case END_ARRAY -> {
+                if (depth == FILES_ARRAY_DEPTH) {
+                    inFilesArray = false;
+                }
+                closeScope();
+            }
+            case VALUE_STRING -> {
+                if (inFilesArray && depth == FILE_OBJECT_DEPTH) {
+                    String field = parser.currentName();
+                    if ("path".equals(field)) {
+                        path = parser.getText();
+                    } else if ("content".equals(field)) {
+                        content = parser.getText();
+                    }
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Returns the offset of the first '{' that opens a JSON object, i.e. is
+     * followed by a quoted key, so braces in leading prose are not mistaken
+     * for the root. Scanned prefix that cannot contain the root is discarded.
+     */
+    private int findRootStart() {
+        int searchFrom = 0;
+        while (true) {
+            int brace = pending.indexOf("{", searchFrom);
+            if (brace < 0) {
+                pending.setLength(0);
+                return -1;
+            }
+            int next = brace + 1;
+            while (next < pending.length() && Character.isWhitespace(pending.charAt(next))) {
+                next++;
+            }
+            if (next == pending.length()) {
+                // Undecided until more input arrives
+                pending.delete(0, brace);
+                return -1;
+            }
+            if (pending.charAt(next) == '"') {
+                return brace;
+            }
+            searchFrom = brace + 1;
+        }
+    }
+
+    private void closeScope() {
+        depth--;
+        if (depth == 0) {
+            finished = true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.forgeai.backend.util;
+
+/**
+ * Fixes the JSON defects models commonly produce, so a completion does not
+ * have to be regenerated over a stray character:
+ * <ul>
+ * <li>unescaped quotes inside strings, recognised by what follows them</li>
+ * <li>raw control characters and invalid escapes inside strings</li>
+ * <li>trailing commas before a closing bracket</li>
+ * <li>prose or code fences around the root object</li>
+ * </ul>
+ * A completion cut off mid-way is left unterminated, so callers can tell
+ * truncation from damage.
+ */
+public final class JsonRepair {
+
+    private static final String VALID_ESCAPES = "\"\\/bfnrtu";
+
+    private JsonRepair() {
+    }
+
+    public static String repair(String text) {
+        int start = rootStart(text);
+        if (start < 0) {
+            return text;
+        }
+
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        boolean inString = false;
+        int depth = 0;
+
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    if (i + 1 < text.length() && VALID_ESCAPES.indexOf(text.charAt(i + 1)) >= 0) {
+                        out.append(c).append(text.charAt(++i));
+                    } else {
+                        out.append("\\\\");
+                    }
+                } else if (c == '"') {
+                    if (closesString(text, i + 1)) {
+                        inString = false;
+                        out.append(c);
+                    } else {
+                        out.append("\\\"");
+                    }
+                } else if (c < 0x20) {
+                    appendControl(out, c);
+                } else {
+                    out.append(c);
+                }
+                continue;
+            }
+
+            if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                dropTrailingComma(out);
+                depth--;
+            }
+            out.append(c);
+            if (depth == 0) {
+                // Anything after the root object is prose
+                break;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * A quote ends the string when what follows can only continue the
+     * surrounding structure: a colon after a key, a closing bracket, the end
+     * of the input, or a comma followed by the start of another value.
+     */
+    private static boolean closesString(String text, int from) {
+        int next = skipWhitespace(text, from);
+        if (next >= text.length()) {
+            return true;
+        }
+        char c = text.charAt(next);
+        if (c == ':' || c == '}' || c == ']') {
+            return true;
+        }
+        if (c != ',') {
+            return false;
+        }
+        int value = skipWhitespace(text, next + 1);
+        if (value >= text.length()) {
+            return true;
+        }
+        char v = text.charAt(value);
+        return v == '"' || v == '{' || v == '[' || v == '}' || v == ']' || v == '-' || Character.isDigit(v)
+                || text.startsWith("true", value) || text.startsWith("false", value)
+                || text.startsWith("null", value);
+    }
+
+    private static int skipWhitespace(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void dropTrailingComma(StringBuilder out) {
+        int i = out.length() - 1;
+        while (i >= 0 && Character.isWhitespace(out.charAt(i))) {
+            i--;
+        }
+        if (i >= 0 && out.charAt(i) == ',') {
+            out.deleteCharAt(i);
+        }
+    }
+
+    private static void appendControl(StringBuilder out, char c) {
+        switch (c) {
+            case '\n' -> out.append("\\n");
+            case '\r' -> out.append("\\r");
+            case '\t' -> out.append("\\t");
+            case '\b' -> out.append("\\b");
+            case '\f' -> out.append("\\f");
+            default -> out.append(String.format("\\u%04x", (int) c));
+        }
+    }
+
+    // Same rule as the streaming parser: the first '{' followed by a quoted key
+    private static int rootStart(String text) {
+        int brace = text.indexOf('{');
+        while (brace >= 0) {
+            int next = skipWhitespace(text, brace + 1);
+            if (next < text.length() && text.charAt(next) == '"') {
+                return brace;
+            }
+            brace = text.indexOf('{', brace + 1);
+        }
+        return -1;
+    }
+}
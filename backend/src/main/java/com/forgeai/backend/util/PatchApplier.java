@@ -0,0 +1,67 @@
+package com.forgeai.backend.util;
+
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.ai.ProjectPatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies search/replace edits to project files. Every search text must occur
+ * exactly once in its file, so an ambiguous or stale edit fails instead of
+ * changing the wrong place.
+ */
+public final class PatchApplier {
+
+    private PatchApplier() {
+    }
+
+    public static List<GenerateResponse.GeneratedFile> apply(List<GenerateResponse.GeneratedFile> files,
+            ProjectPatch patch) {
+        if (patch == null || patch.patches() == null || patch.patches().isEmpty()) {
+            throw new RuntimeException("Patch contains no edits");
+        }
+
+        Map<String, String> contents = new LinkedHashMap<>();
+        for (GenerateResponse.GeneratedFile file : files) {
+            contents.put(file.getPath(), file.getContent());
+        }
+
+        for (ProjectPatch.FilePatch filePatch : patch.patches()) {
+            String content = contents.get(filePatch.path());
+            if (content == null) {
+                throw new RuntimeException("Patch targets unknown file: " + filePatch.path());
+            }
+            if (filePatch.edits() == null || filePatch.edits().isEmpty()) {
+                throw new RuntimeException("Patch for " + filePatch.path() + " contains no edits");
+            }
+            for (ProjectPatch.Edit edit : filePatch.edits()) {
+                content = applyEdit(filePatch.path(), content, edit);
+            }
+            contents.put(filePatch.path(), content);
+        }
+
+        List<GenerateResponse.GeneratedFile> patched = new ArrayList<>(contents.size());
+        contents.forEach((path, content) -> patched.add(new GenerateResponse.GeneratedFile(path, content)));
+        return patched;
+    }
+
+    private static String applyEdit(String path, String content, ProjectPatch.Edit edit) {
+        String search = edit.search();
+        if (search == null || search.isEmpty()) {
+            throw new RuntimeException("Empty search text in patch for " + path);
+        }
+        String replace = edit.replace() == null ? "" : edit.replace();
+
+        int index = content.indexOf(search);
+        if (index < 0) {
+            throw new RuntimeException("Search text not found in " + path);
+        }
+        if (content.indexOf(search, index + 1) >= 0) {
+            throw new RuntimeException("Search text is not unique in " + path);
+        }
+        return content.substring(0, index) + replace + content.substring(index + search.length());
+    }
+}
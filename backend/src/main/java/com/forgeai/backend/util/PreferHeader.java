@@ -0,0 +1,49 @@
+package com.forgeai.backend.util;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the {@code Prefer} request header (RFC 7240): a comma-separated list
+ * of preferences, each optionally with a value and parameters, such as
+ * {@code respond-async, wait=10}. Names are case-insensitive.
+ */
+public final class PreferHeader {
+
+    public static final String NAME = "Prefer";
+    public static final String RESPOND_ASYNC = "respond-async";
+
+    private PreferHeader() {
+    }
+
+    public static boolean respondAsync(List<String> values) {
+        return contains(values, RESPOND_ASYNC);
+    }
+
+    public static boolean contains(List<String> values, String preference) {
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String token : value.split(",")) {
+                if (name(token).equals(preference)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String name(String token) {
+        int end = token.length();
+        int parameters = token.indexOf(';');
+        if (parameters >= 0) {
+            end = parameters;
+        }
+        int value = token.indexOf('=');
+        if (value >= 0 && value < end) {
+            end = value;
+        }
+        return token.substring(0, end).trim().toLowerCase(Locale.ROOT);
+    }
+}
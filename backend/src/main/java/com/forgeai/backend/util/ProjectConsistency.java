@@ -0,0 +1,98 @@
+package com.forgeai.backend.util;
+
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.ai.DesignSpec;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks that files written independently from one {@link DesignSpec} fit
+ * together: the page loads the stylesheet and script, has every spec
+ * section, the stylesheet styles every spec class, and the script only
+ * looks up ids that exist in the markup or that it assigns itself.
+ */
+public final class ProjectConsistency {
+
+    private static final Pattern STYLESHEET_LINK =
+            Pattern.compile("href\\s*=\\s*[\"'](?:\\./)?styles\\.css[\"']", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SCRIPT_TAG =
+            Pattern.compile("src\\s*=\\s*[\"'](?:\\./)?script\\.js[\"']", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ID_ATTRIBUTE = Pattern.compile("\\bid\\s*=\\s*[\"']([^\"']+)[\"']");
+    // Ids the script gives elements it creates: el.id = 'x', setAttribute('id', 'x'), or id="x" in markup it builds
+    private static final Pattern SCRIPT_ID_ASSIGNMENT = Pattern.compile(
+            "\\.id\\s*=\\s*[\"'`]([\\w-]+)[\"'`]|setAttribute\\(\\s*[\"']id[\"']\\s*,\\s*[\"'`]([\\w-]+)[\"'`]");
+    private static final Pattern SCRIPT_ID_LOOKUP = Pattern.compile(
+            "getElementById\\(\\s*[\"']([\\w-]+)[\"']\\s*\\)|querySelector(?:All)?\\(\\s*[\"']#([\\w-]+)[\"']\\s*\\)");
+
+    private ProjectConsistency() {
+    }
+
+    /** Describes each mismatch found; empty when the files are consistent. */
+    public static List<String> problems(List<GenerateResponse.GeneratedFile> files, DesignSpec spec) {
+        String html = content(files, "index.html");
+        String css = content(files, "styles.css");
+        String js = content(files, "script.js");
+        List<String> problems = new ArrayList<>();
+
+        if (!STYLESHEET_LINK.matcher(html).find()) {
+            problems.add("index.html does not link styles.css");
+        }
+        if (!SCRIPT_TAG.matcher(html).find()) {
+            problems.add("index.html does not load script.js");
+        }
+
+        Set<String> ids = new HashSet<>();
+        Matcher idMatcher = ID_ATTRIBUTE.matcher(html);
+        while (idMatcher.find()) {
+            ids.add(idMatcher.group(1).trim());
+        }
+
+        if (spec.sections() != null) {
+            for (DesignSpec.Section section : spec.sections()) {
+                if (section.id() != null && !ids.contains(section.id())) {
+                    problems.add("section #" + section.id() + " is missing from index.html");
+                }
+            }
+        }
+        if (spec.classes() != null) {
+            for (String className : spec.classes()) {
+                Pattern selector = Pattern.compile("\\." + Pattern.quote(className) + "(?![\\w-])");
+                if (!selector.matcher(css).find()) {
+                    problems.add("class ." + className + " is not styled in styles.css");
+                }
+            }
+        }
+
+        Set<String> scriptIds = new HashSet<>();
+        Matcher assignment = SCRIPT_ID_ASSIGNMENT.matcher(js);
+        while (assignment.find()) {
+            scriptIds.add(assignment.group(1) != null ? assignment.group(1) : assignment.group(2));
+        }
+        Matcher scriptMarkup = ID_ATTRIBUTE.matcher(js);
+        while (scriptMarkup.find()) {
+            scriptIds.add(scriptMarkup.group(1).trim());
+        }
+
+        Matcher lookup = SCRIPT_ID_LOOKUP.matcher(js);
+        while (lookup.find()) {
+            String id = lookup.group(1) != null ? lookup.group(1) : lookup.group(2);
+            if (!ids.contains(id) && !scriptIds.contains(id)) {
+                problems.add("script.js looks up #" + id + " which is not in index.html");
+            }
+        }
+        return problems;
+    }
+
+    private static String content(List<GenerateResponse.GeneratedFile> files, String path) {
+        return files.stream()
+                .filter(file -> path.equalsIgnoreCase(file.getPath()))
+                .map(GenerateResponse.GeneratedFile::getContent)
+                .findFirst()
+                .orElse("");
+    }
+}
@@ -0,0 +1,65 @@
+package com.forgeai.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prompt template with {{name}} placeholders, split into literal and
+ * placeholder segments once so rendering is a single append pass.
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final List<String> literals;
+    private final List<String> names;
+    private final int literalLength;
+
+    private PromptTemplate(List<String> literals, List<String> names) {
+        this.literals = literals;
+        this.names = names;
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    public static PromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            literals.add(source.substring(position, open));
+            names.add(source.substring(open + OPEN.length(), close).trim());
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+
+        return new PromptTemplate(List.copyOf(literals), List.copyOf(names));
+    }
+
+    public String render(Map<String, String> values) {
+        int length = literalLength;
+        for (String name : names) {
+            String value = values.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for prompt placeholder: " + name);
+            }
+            length += value.length();
+        }
+
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < names.size(); i++) {
+            out.append(literals.get(i)).append(values.get(names.get(i)));
+        }
+        return out.append(literals.get(names.size())).toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.forgeai.backend.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * How long the {@link OpenRouterStub} takes before the first byte of a
+ * completion. Model latency is long-tailed, so {@link #logNormal} is the
+ * closest to the real provider.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    Duration sample(RandomGenerator random);
+
+    static LatencyDistribution none() {
+        return random -> Duration.ZERO;
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        return random -> Duration.ofNanos(minNanos + (long) (random.nextDouble() * (maxNanos - minNanos)));
+    }
+
+    /** {@code sigma} is the standard deviation of the log; 0.5 gives a p99 of about 3x the median. */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        long medianNanos = median.toNanos();
+        return random -> Duration.ofNanos((long) (medianNanos * Math.exp(sigma * random.nextGaussian())));
+    }
+
+    /**
+     * Parses {@code none}, {@code fixed:200ms}, {@code uniform:100ms-400ms}
+     * or {@code lognormal:300ms,0.5}, for settings passed on the command line.
+     */
+    static LatencyDistribution parse(String spec) {
+        String[] kind = spec.trim().split(":", 2);
+        return switch (kind[0].toLowerCase()) {
+            case "none" -> none();
+            case "fixed" -> fixed(DurationStyle.detectAndParse(kind[1].trim()));
+            case "uniform" -> {
+                String[] range = kind[1].split("-", 2);
+                yield uniform(DurationStyle.detectAndParse(range[0].trim()),
+                        DurationStyle.detectAndParse(range[1].trim()));
+            }
+            case "lognormal" -> {
+                String[] parameters = kind[1].split(",", 2);
+                yield logNormal(DurationStyle.detectAndParse(parameters[0].trim()),
+                        parameters.length > 1 ? Double.parseDouble(parameters[1].trim()) : 0.5);
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        };
+    }
+}
@@ -0,0 +1,287 @@
+package com.forgeai.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for a running backend: each worker repeatedly
+ * picks an operation from the weighted mix, waits for the response and
+ * records its latency. Edit, preview and download need a project, so a
+ * worker generates one first while none exists yet.
+ *
+ * <p>Runs in-process from {@code LoadHarnessTest}, or standalone against any
+ * deployment through {@link #main}.
+ */
+public final class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<String> PREVIEW_PATHS = List.of("index.html", "styles.css", "script.js");
+    private static final int MAX_PROJECTS = 200;
+
+    public enum Operation {
+        GENERATE, EDIT, PREVIEW, DOWNLOAD
+    }
+
+    private final URI baseUrl;
+    private final int concurrency;
+    private final Duration duration;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final HttpClient client;
+    private final List<String> projects = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LoadDriver(Builder builder) {
+        this.baseUrl = URI.create(builder.baseUrl.endsWith("/") ? builder.baseUrl : builder.baseUrl + "/");
+        this.concurrency = builder.concurrency;
+        this.duration = builder.duration;
+        this.mix = new EnumMap<>(builder.mix);
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Load mix needs at least one positive weight");
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public LoadReport run() {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        mix.keySet().forEach(operation -> recorders.put(operation, new Recorder()));
+        recorders.putIfAbsent(Operation.GENERATE, new Recorder());
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = projects.isEmpty() ? Operation.GENERATE : pick();
+                        long begin = System.nanoTime();
+                        boolean ok = execute(operation);
+                        recorders.get(operation).record(System.nanoTime() - begin, ok);
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<Operation, LoadReport.Stats> operations = new EnumMap<>(Operation.class);
+        List<Long> all = new ArrayList<>();
+        long errors = 0;
+        for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+            Recorder recorder = entry.getValue();
+            synchronized (recorder) {
+                operations.put(entry.getKey(), LoadReport.Stats.of(recorder.latencies(), recorder.errors, elapsed));
+                recorder.latencies.forEach(all::add);
+                errors += recorder.errors;
+            }
+        }
+        long[] latencies = all.stream().mapToLong(Long::longValue).toArray();
+        return new LoadReport(elapsed, operations, LoadReport.Stats.of(latencies, errors, elapsed));
+    }
+
+    private Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return Operation.GENERATE;
+    }
+
+    private boolean execute(Operation operation) {
+        try {
+            return switch (operation) {
+                case GENERATE -> generate();
+                case EDIT -> edit(project());
+                case PREVIEW -> get("api/projects/" + project() + "/preview/"
+                        + PREVIEW_PATHS.get(ThreadLocalRandom.current().nextInt(PREVIEW_PATHS.size())));
+                case DOWNLOAD -> get("api/projects/" + project() + "/download");
+            };
+        } catch (IOException e) {
+            logger.debug("{} failed: {}", operation, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean generate() throws IOException, InterruptedException {
+        // A distinct description per request so the generation cache is not what gets measured
+        long n = sequence.incrementAndGet();
+        JsonNode response = post("api/generate", Map.of(
+                "projectName", "Load Test " + n,
+                "description", "A landing page for load test customer " + n,
+                "category", "business",
+                "sections", List.of("hero", "features", "about", "benefits", "cta")));
+        if (response == null || !response.path("success").asBoolean()) {
+            return false;
+        }
+        projects.add(response.path("projectId").asText());
+        if (projects.size() > MAX_PROJECTS) {
+            projects.remove(0);
+        }
+        return true;
+    }
+
+    private boolean edit(String projectId) throws IOException, InterruptedException {
+        JsonNode response = post("api/projects/" + projectId + "/edit",
+                Map.of("message", "Make the header background a little darker"));
+        return response != null && response.path("success").asBoolean();
+    }
+
+    private JsonNode post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            logger.debug("POST {} returned {}", path, response.statusCode());
+            return null;
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private boolean get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            logger.debug("GET {} returned {}", path, response.statusCode());
+            return false;
+        }
+        return true;
+    }
+
+    private String project() {
+        List<String> snapshot = projects;
+        return snapshot.get(ThreadLocalRandom.current().nextInt(snapshot.size()));
+    }
+
+    /**
+     * Standalone run: {@code LoadDriver [baseUrl]}, tuned with the
+     * {@code loadtest.concurrency}, {@code loadtest.duration} and
+     * {@code loadtest.mix} system properties.
+     */
+    public static void main(String[] args) {
+        LoadReport report = builder()
+                .baseUrl(args.length > 0 ? args[0] : "http://localhost:8080")
+                .fromSystemProperties()
+                .build()
+                .run();
+        System.out.println(report.format());
+    }
+
+    private static final class Recorder {
+        private final List<Long> latencies = new ArrayList<>();
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            latencies.add(nanos);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        long[] latencies() {
+            return latencies.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    public static final class Builder {
+        private String baseUrl = "http://localhost:8080";
+        private int concurrency = 8;
+        private Duration duration = Duration.ofSeconds(10);
+        private final Map<Operation, Integer> mix = new EnumMap<>(Map.of(
+                Operation.GENERATE, 1,
+                Operation.EDIT, 1,
+                Operation.PREVIEW, 6,
+                Operation.DOWNLOAD, 2));
+
+        private Builder() {
+        }
+
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /** Relative weight of an operation; 0 leaves it out. */
+        public Builder weight(Operation operation, int weight) {
+            mix.put(operation, weight);
+            return this;
+        }
+
+        /** Mix written as {@code generate=1,edit=1,preview=6,download=2}. */
+        public Builder mix(String mix) {
+            this.mix.clear();
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.split("=", 2);
+                weight(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+            }
+            return this;
+        }
+
+        public Builder fromSystemProperties() {
+            concurrency(Integer.getInteger("loadtest.concurrency", concurrency));
+            String configuredDuration = System.getProperty("loadtest.duration");
+            if (configuredDuration != null) {
+                duration(DurationStyle.detectAndParse(configuredDuration));
+            }
+            String configuredMix = System.getProperty("loadtest.mix");
+            if (configuredMix != null) {
+                mix(configuredMix);
+            }
+            return this;
+        }
+
+        public LoadDriver build() {
+            return new LoadDriver(this);
+        }
+    }
+}
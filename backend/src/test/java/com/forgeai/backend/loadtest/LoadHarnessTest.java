@@ -0,0 +1,85 @@
+package com.forgeai.backend.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load run against the real application and the in-process
+ * {@link OpenRouterStub}. The defaults keep it short enough for every build;
+ * for capacity measurements run it longer, e.g.
+ * {@code mvn test -Dtest=LoadHarnessTest -Dloadtest.duration=60s -Dloadtest.concurrency=64
+ * -Dloadtest.latency=lognormal:2s,0.6}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadHarnessTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadHarnessTest.class);
+
+    private static final OpenRouterStub stub = OpenRouterStub.builder()
+            .latency(LatencyDistribution.parse(System.getProperty("loadtest.latency", "lognormal:20ms,0.5")))
+            .chunkDelay(Duration.ofMillis(Long.getLong("loadtest.chunk-delay-ms", 0)))
+            .errorRate(Double.parseDouble(System.getProperty("loadtest.error-rate", "0")))
+            .rateLimitRate(Double.parseDouble(System.getProperty("loadtest.rate-limit-rate", "0.02")),
+                    Duration.ZERO)
+            .build()
+            .start();
+
+    private static final Path storage = createStorage();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("openrouter.api.url", stub::url);
+        registry.add("openrouter.api.key", () -> "load-test");
+        registry.add("forgeai.storage.base-folder", storage::toString);
+        registry.add("forgeai.ratelimit.enabled", () -> "false");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        stub.close();
+        FileSystemUtils.deleteRecursively(storage);
+    }
+
+    @Test
+    void sustainsMixedLoadWithoutErrors() {
+        LoadReport report = LoadDriver.builder()
+                .baseUrl("http://localhost:" + port)
+                .duration(Duration.ofSeconds(3))
+                .concurrency(8)
+                .fromSystemProperties()
+                .build()
+                .run();
+
+        logger.info("Load test against stub ({} upstream requests, {} rate limited, {} errors):\n{}",
+                stub.requests(), stub.rateLimited(), stub.errors(), report.format());
+        assertThat(report.total().count()).isPositive();
+        assertThat(report.operations()).allSatisfy((operation, stats) -> assertThat(stats.count())
+                .as(operation.name()).isPositive());
+        assertThat(report.errors()).isZero();
+    }
+
+    private static Path createStorage() {
+        try {
+            return Files.createTempDirectory("forgeai-loadtest");
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create load test storage", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.forgeai.backend.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles of a {@link LoadDriver} run, per
+ * operation and in total. Latencies include failed requests.
+ */
+public record LoadReport(Duration elapsed, Map<LoadDriver.Operation, Stats> operations, Stats total) {
+
+    public record Stats(long count, long errors, double throughput, Duration p50, Duration p90, Duration p99,
+            Duration max) {
+
+        static Stats of(long[] latencies, long errors, Duration elapsed) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+            return new Stats(sorted.length, errors, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 1.0));
+        }
+
+        // Nearest rank
+        private static Duration percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return Duration.ZERO;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return Duration.ofNanos(sorted[Math.max(rank, 1) - 1]);
+        }
+    }
+
+    public long errors() {
+        return total.errors();
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder(String.format("%-10s %8s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        Map<LoadDriver.Operation, Stats> rows = new EnumMap<>(operations);
+        rows.forEach((operation, stats) -> out.append(row(operation.name().toLowerCase(), stats)));
+        out.append(row("total", total));
+        out.append(String.format("elapsed %.1fs", elapsed.toMillis() / 1000.0));
+        return out.toString();
+    }
+
+    private static String row(String name, Stats stats) {
+        return String.format("%-10s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, stats.count(), stats.errors(),
+                stats.throughput(), millis(stats.p50()), millis(stats.p90()), millis(stats.p99()),
+                millis(stats.max()));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
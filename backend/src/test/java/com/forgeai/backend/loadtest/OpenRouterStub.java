@@ -0,0 +1,309 @@
+package com.forgeai.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the OpenRouter chat completions API, so the whole
+ * pipeline can be exercised and load tested without spending on a real
+ * provider. Answers streaming and non-streaming requests with canned
+ * payloads from {@code classpath:loadtest}: the full files JSON, a patch
+ * that always applies, the fan-out design spec or a single file, picked
+ * from the prompt. Latency, chunk pacing and the share of 5xx and 429
+ * responses are configurable.
+ */
+public final class OpenRouterStub implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<String> FILES = List.of("index.html", "styles.css", "script.js");
+    private static final String EDIT_MARKER = "/* forge-edit */";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LatencyDistribution latency;
+    private final Duration chunkDelay;
+    private final int chunkSize;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final Duration retryAfter;
+    private final Map<String, String> files;
+    private final String filesJson;
+    private final String patchJson;
+    private final String specJson;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    private OpenRouterStub(Builder builder) {
+        this.latency = builder.latency;
+        this.chunkDelay = builder.chunkDelay;
+        this.chunkSize = builder.chunkSize;
+        this.errorRate = builder.errorRate;
+        this.rateLimitRate = builder.rateLimitRate;
+        this.retryAfter = builder.retryAfter;
+        this.files = builder.files;
+        try {
+            List<Map<String, String>> entries = new ArrayList<>();
+            files.forEach((path, content) -> entries.add(Map.of("path", path, "content", content)));
+            this.filesJson = MAPPER.writeValueAsString(Map.of("files", entries));
+            this.patchJson = MAPPER.writeValueAsString(Map.of("patches", List.of(Map.of(
+                    "path", "styles.css",
+                    "edits", List.of(Map.of(
+                            "search", EDIT_MARKER,
+                            "replace", EDIT_MARKER + "\n.edited { outline: 0; }"))))));
+            this.specJson = builder.spec;
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start OpenRouter stub", e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public OpenRouterStub start() {
+        server.start();
+        return this;
+    }
+
+    /** Value for {@code openrouter.api.url}. */
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/chat/completions";
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public long rateLimited() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "{\"error\":{\"message\":\"POST only\"}}");
+                return;
+            }
+            requests.incrementAndGet();
+            JsonNode body = MAPPER.readTree(exchange.getRequestBody());
+            String model = body.path("model").asText("stub/model");
+            String system = messageText(body, "system");
+            String user = messageText(body, "user");
+
+            // Overload answers come back immediately, like the real provider's
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < rateLimitRate) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", Long.toString(retryAfter.toSeconds()));
+                send(exchange, 429, "{\"error\":{\"code\":429,\"message\":\"Rate limit exceeded\"}}");
+                return;
+            }
+            if (roll < rateLimitRate + errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"Provider unavailable\"}}");
+                return;
+            }
+
+            sleep(latency.sample(ThreadLocalRandom.current()));
+            String completion = completionFor(system, user);
+            Map<String, Object> usage = usage(system, user, completion);
+            if (body.path("stream").asBoolean(false)) {
+                stream(exchange, model, completion, usage);
+            } else {
+                send(exchange, 200, MAPPER.writeValueAsString(Map.of(
+                        "model", model,
+                        "choices", List.of(Map.of(
+                                "message", Map.of("role", "assistant", "content", completion),
+                                "finish_reason", "stop")),
+                        "usage", usage)));
+            }
+        }
+    }
+
+    private String completionFor(String system, String user) {
+        int file = user.indexOf("\nFILE: ");
+        if (file >= 0) {
+            int start = file + "\nFILE: ".length();
+            int end = user.indexOf('\n', start);
+            String path = user.substring(start, end < 0 ? user.length() : end).trim();
+            return files.getOrDefault(path, "");
+        }
+        if (system.contains("\"classes\"")) {
+            return specJson;
+        }
+        if (system.contains("\"patches\"")) {
+            return patchJson;
+        }
+        return filesJson;
+    }
+
+    private void stream(HttpExchange exchange, String model, String completion, Map<String, Object> usage)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        writeEvent(out, ": OPENROUTER PROCESSING");
+        for (int i = 0; i < completion.length(); i += chunkSize) {
+            String delta = completion.substring(i, Math.min(i + chunkSize, completion.length()));
+            writeEvent(out, "data: " + MAPPER.writeValueAsString(Map.of(
+                    "model", model,
+                    "choices", List.of(Map.of("delta", Map.of("content", delta))))));
+            sleep(chunkDelay);
+        }
+        writeEvent(out, "data: " + MAPPER.writeValueAsString(Map.of(
+                "model", model,
+                "choices", List.of(Map.of("delta", Map.of(), "finish_reason", "stop")),
+                "usage", usage)));
+        writeEvent(out, "data: [DONE]");
+    }
+
+    private static void writeEvent(OutputStream out, String event) throws IOException {
+        out.write((event + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    // Content is a string, or a list of parts when prompt caching is on
+    private static String messageText(JsonNode body, String role) {
+        StringBuilder text = new StringBuilder();
+        for (JsonNode message : body.path("messages")) {
+            if (!role.equals(message.path("role").asText())) {
+                continue;
+            }
+            JsonNode content = message.path("content");
+            if (content.isTextual()) {
+                text.append(content.asText());
+            } else {
+                content.forEach(part -> text.append(part.path("text").asText()));
+            }
+        }
+        return text.toString();
+    }
+
+    // About four characters per token; the system prompt counts as cached
+    private static Map<String, Object> usage(String system, String user, String completion) {
+        int prompt = (system.length() + user.length()) / 4;
+        int completionTokens = completion.length() / 4;
+        return Map.of(
+                "prompt_tokens", prompt,
+                "completion_tokens", completionTokens,
+                "total_tokens", prompt + completionTokens,
+                "prompt_tokens_details", Map.of("cached_tokens", system.length() / 4));
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String resource(String name) {
+        try {
+            return new ClassPathResource("loadtest/" + name).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Missing load test payload " + name, e);
+        }
+    }
+
+    public static final class Builder {
+        private LatencyDistribution latency = LatencyDistribution.none();
+        private Duration chunkDelay = Duration.ZERO;
+        private int chunkSize = 64;
+        private double errorRate;
+        private double rateLimitRate;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private Map<String, String> files;
+        private String spec;
+
+        private Builder() {
+            files = new LinkedHashMap<>();
+            FILES.forEach(path -> files.put(path, resource(path)));
+            spec = resource("spec.json");
+        }
+
+        /** Time to first byte of each completion. */
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /** Pause between streamed deltas, to model generation speed. */
+        public Builder chunkDelay(Duration chunkDelay) {
+            this.chunkDelay = chunkDelay;
+            return this;
+        }
+
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /** Share of requests answered with a 503. */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /** Share of requests answered with a 429 and {@code Retry-After}. */
+        public Builder rateLimitRate(double rateLimitRate, Duration retryAfter) {
+            this.rateLimitRate = rateLimitRate;
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /** Replaces the canned files; the patch edits styles.css and needs the edit marker in it. */
+        public Builder files(Map<String, String> files) {
+            this.files = new LinkedHashMap<>(files);
+            return this;
+        }
+
+        public OpenRouterStub build() {
+            return new OpenRouterStub(this);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.AssetProperties;
+import com.forgeai.backend.config.PreviewCacheProperties;
+import com.forgeai.backend.dto.GenerateResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssetOptimizerTest {
+
+    private static final String CSS = IntStream.range(0, 20)
+            .mapToObj(i -> "/* Card " + i + " */\n.card-" + i + " {\n    padding: " + i + "px;\n}\n")
+            .collect(Collectors.joining("\n"));
+
+    private final AssetProperties properties = new AssetProperties();
+    private final PreviewCacheProperties previewProperties = new PreviewCacheProperties();
+    private final AssetOptimizer optimizer = new AssetOptimizer(properties, previewProperties,
+            new SimpleMeterRegistry());
+
+    @Test
+    void storesAGzipOfTheMinifiedCopy() throws IOException {
+        AssetOptimizer.Variants variants = optimizer.optimize(List.of(file("styles.css", CSS))).get("styles.css");
+
+        assertThat(variants.minified()).isNotNull().hasSizeLessThan(CSS.length());
+        assertThat(gunzip(variants.gzipped())).isEqualTo(variants.minified());
+    }
+
+    @Test
+    void compressesWhatThePreviewCacheWould() {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"><rect width=\"1\" height=\"1\"/></svg>\n".repeat(10);
+        String binary = "x".repeat(1000);
+
+        Map<String, AssetOptimizer.Variants> variants = optimizer.optimize(List.of(
+                file("logo.svg", svg), file("font.woff2", binary), file("small.js", "let a = 1;")));
+
+        assertThat(variants.get("logo.svg").gzipped()).isNotNull();
+        assertThat(variants.get("font.woff2").gzipped()).isNull();
+        assertThat(variants.get("small.js").gzipped()).isNull();
+    }
+
+    @Test
+    void followsThePreviewMinimumCompressSize() {
+        previewProperties.setMinCompressSize(DataSize.ofKilobytes(64));
+
+        AssetOptimizer.Variants variants = optimizer.optimize(List.of(file("styles.css", CSS))).get("styles.css");
+
+        assertThat(variants.minified()).isNotNull();
+        assertThat(variants.gzipped()).isNull();
+    }
+
+    @Test
+    void skipsDisabledVariants() {
+        properties.setMinify(false);
+        properties.setPrecompress(false);
+
+        AssetOptimizer.Variants variants = optimizer.optimize(List.of(file("styles.css", CSS))).get("styles.css");
+
+        assertThat(variants.minified()).isNull();
+        assertThat(variants.gzipped()).isNull();
+    }
+
+    private static GenerateResponse.GeneratedFile file(String path, String content) {
+        return new GenerateResponse.GeneratedFile(path, content);
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+}
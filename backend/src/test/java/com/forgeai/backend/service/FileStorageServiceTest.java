@@ -0,0 +1,93 @@
+package com.forgeai.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forgeai.backend.config.AssetProperties;
+import com.forgeai.backend.config.PreviewCacheProperties;
+import com.forgeai.backend.config.StorageProperties;
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.storage.FileSystemBlobStore;
+import com.forgeai.backend.storage.FileSystemProjectRefStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStorageServiceTest {
+
+    private static final String CSS = IntStream.range(0, 20)
+            .mapToObj(i -> "/* Card " + i + " */\n.card-" + i + " {\n    padding: " + i + "px;\n}\n")
+            .collect(Collectors.joining("\n"));
+
+    @TempDir
+    Path baseFolder;
+
+    private AssetOptimizer optimizer;
+    private FileStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties properties = new StorageProperties();
+        properties.setBaseFolder(baseFolder);
+        optimizer = new AssetOptimizer(new AssetProperties(), new PreviewCacheProperties(), new SimpleMeterRegistry());
+        storage = new FileStorageService(new FileSystemBlobStore(properties, new SimpleMeterRegistry()),
+                new FileSystemProjectRefStore(properties), new ObjectMapper().findAndRegisterModules(), properties,
+                event -> {
+                }, optimizer);
+    }
+
+    @Test
+    void servesTheStoredMinifiedAndGzipCopies() {
+        List<GenerateResponse.GeneratedFile> files = List.of(new GenerateResponse.GeneratedFile("styles.css", CSS));
+        AssetOptimizer.Variants variants = optimizer.optimize(files).get("styles.css");
+        storage.saveProjectFiles("project", files, Map.of("styles.css", variants));
+
+        FileStorageService.StoredAsset asset = storage.readProjectAsset("project", null, "styles.css").orElseThrow();
+
+        assertThat(bytes(asset.content())).isEqualTo(variants.minified());
+        assertThat(bytes(asset.gzipped())).isEqualTo(variants.gzipped());
+        assertThat(storage.loadProjectFiles("project").get(0).getContent()).isEqualTo(CSS);
+    }
+
+    @Test
+    void previewCacheServesTheStoredGzipAsIs() {
+        byte[] storedGzip = "stored gzip".getBytes(StandardCharsets.UTF_8);
+        storage.saveProjectFiles("project", List.of(new GenerateResponse.GeneratedFile("styles.css", CSS)),
+                Map.of("styles.css", new AssetOptimizer.Variants(null, storedGzip)));
+        PreviewAssetCache cache = new PreviewAssetCache(storage, new PreviewCacheProperties(),
+                new SimpleMeterRegistry());
+
+        PreviewAssetCache.PreviewAsset asset = cache.get("project", null, "styles.css").orElseThrow();
+
+        assertThat(bytes(asset.content())).isEqualTo(CSS.getBytes(StandardCharsets.UTF_8));
+        assertThat(bytes(asset.gzipped())).isEqualTo(storedGzip);
+    }
+
+    @Test
+    void restoredProjectGetsItsServedCopiesBack() {
+        List<GenerateResponse.GeneratedFile> files = List.of(new GenerateResponse.GeneratedFile("styles.css", CSS));
+        AssetOptimizer.Variants variants = optimizer.optimize(files).get("styles.css");
+        storage.saveProjectFiles("project", files, Map.of("styles.css", variants));
+        assertThat(storage.archiveProject("project")).isTrue();
+
+        FileStorageService.StoredAsset asset = storage.readProjectAsset("project", null, "styles.css").orElseThrow();
+
+        assertThat(bytes(asset.content())).isEqualTo(variants.minified());
+        assertThat(bytes(asset.gzipped())).isEqualTo(variants.gzipped());
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,185 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.client.OpenRouterOperation;
+import com.forgeai.backend.config.RouterProperties;
+import com.forgeai.backend.config.UpstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelRouterTest {
+
+    private final RouterProperties routerProperties = new RouterProperties();
+    private final UpstreamProperties upstreamProperties = new UpstreamProperties();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private UpstreamLimiter limiter;
+    private ModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        routerProperties.setGenerateModels(List.of("primary", "backup"));
+        routerProperties.setInitialHedgeDelay(Duration.ofSeconds(1));
+        routerProperties.setMinHedgeDelay(Duration.ofMillis(500));
+        upstreamProperties.getAdaptive().setEnabled(false);
+        upstreamProperties.getCircuit().setEnabled(false);
+        upstreamProperties.getRetry().setMaxAttempts(1);
+    }
+
+    @Test
+    void hedgeWinsOverPrimaryThatOnlySentAnEmptyDelta() {
+        StepVerifier.withVirtualTime(() -> {
+                    start();
+                    return route(model -> model.equals("primary")
+                            ? Flux.concat(after(100, ""), after(10_000, "slow"))
+                            : after(100, "fast"));
+                })
+                .thenAwait(Duration.ofSeconds(2))
+                .expectNext("fast")
+                .verifyComplete();
+
+        assertThat(calls("backup")).isEqualTo(1);
+    }
+
+    @Test
+    void failsOverOnRetryableErrorsOnly() {
+        StepVerifier.withVirtualTime(() -> {
+                    start();
+                    return route(model -> model.equals("primary")
+                            ? Flux.error(status(503))
+                            : after(100, "backup"));
+                })
+                .thenAwait(Duration.ofMillis(200))
+                .expectNext("backup")
+                .verifyComplete();
+
+        StepVerifier.withVirtualTime(() -> {
+                    start();
+                    return route(model -> model.equals("primary")
+                            ? Flux.<String>error(status(400))
+                            : after(100, "backup"));
+                })
+                .expectErrorMatches(e -> e instanceof WebClientResponseException.BadRequest)
+                .verify(Duration.ofSeconds(5));
+        assertThat(calls("backup")).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeDelayStartsOnceTheSlotIsGranted() {
+        upstreamProperties.setMaxConcurrent(1);
+
+        StepVerifier.withVirtualTime(() -> {
+                    start();
+                    hold(Duration.ofSeconds(5));
+                    return route(model -> after(500, model));
+                })
+                .thenAwait(Duration.ofSeconds(6))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertThat(calls("backup")).isZero();
+    }
+
+    @Test
+    void hedgeIsCheckedAgainOnceNoCallIsWaiting() {
+        upstreamProperties.setMaxConcurrent(2);
+
+        StepVerifier.withVirtualTime(() -> {
+                    start();
+                    hold(Duration.ofMillis(1200));
+                    // Queued once the primary holds the other slot; runs from 1.2s to 1.3s
+                    Mono.delay(Duration.ofMillis(10)).subscribe(tick -> hold(Duration.ofMillis(100)));
+                    return route(model -> model.equals("primary")
+                            ? after(10_000, "primary")
+                            : after(100, "backup"));
+                })
+                .thenAwait(Duration.ofSeconds(2))
+                .expectNext("backup")
+                .verifyComplete();
+    }
+
+    @Test
+    void retriesAfterTheProvidersRetryAfter() {
+        routerProperties.setGenerateModels(List.of("primary"));
+        upstreamProperties.getRetry().setMaxAttempts(2);
+
+        StepVerifier.withVirtualTime(() -> {
+                    start();
+                    return route(model -> calls(model) == 1
+                            ? Flux.error(tooManyRequests("3"))
+                            : after(100, "retried"));
+                })
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(2900))
+                .thenAwait(Duration.ofMillis(200))
+                .expectNext("retried")
+                .verifyComplete();
+
+        assertThat(calls("primary")).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotRetryWhenRetryAfterExceedsTheMaximumBackoff() {
+        routerProperties.setGenerateModels(List.of("primary"));
+        upstreamProperties.getRetry().setMaxAttempts(3);
+        upstreamProperties.getRetry().setMaxBackoff(Duration.ofSeconds(10));
+
+        StepVerifier.withVirtualTime(() -> {
+                    start();
+                    return route(model -> Flux.<String>error(tooManyRequests("60")));
+                })
+                .expectError(WebClientResponseException.TooManyRequests.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(calls("primary")).isEqualTo(1);
+    }
+
+    // Called inside withVirtualTime, so the limiter's timers run on virtual time
+    private void start() {
+        limiter = new UpstreamLimiter(upstreamProperties, new SimpleMeterRegistry());
+        router = new ModelRouter(routerProperties, upstreamProperties, limiter,
+                new UpstreamCircuitBreaker(upstreamProperties, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+    }
+
+    private Flux<String> route(Function<String, Flux<String>> responses) {
+        return router.route(OpenRouterOperation.GENERATE, model -> {
+            calls.computeIfAbsent(model, m -> new AtomicInteger()).incrementAndGet();
+            return responses.apply(model);
+        }, text -> !text.isBlank());
+    }
+
+    private void hold(Duration duration) {
+        limiter.limit(() -> Mono.delay(duration)).subscribe();
+    }
+
+    private int calls(String model) {
+        return calls.getOrDefault(model, new AtomicInteger()).get();
+    }
+
+    private static Flux<String> after(long millis, String value) {
+        return Mono.just(value).delayElement(Duration.ofMillis(millis)).flux();
+    }
+
+    private static WebClientResponseException tooManyRequests(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        return WebClientResponseException.create(429, "", headers, new byte[0], null);
+    }
+
+    private static WebClientResponseException status(int status) {
+        return WebClientResponseException.create(status, "", HttpHeaders.EMPTY, new byte[0], null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.RateLimitProperties;
+import com.forgeai.backend.exception.RateLimitedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitServiceTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private final AtomicLong now = new AtomicLong();
+    private RateLimitService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.getDefaultLimit().setRequestsPerMinute(60);
+        properties.getDefaultLimit().setBurstRequests(2);
+        properties.setEstimatedCompletionTokens(0);
+        properties.setApiKeys(Set.of("known-key"));
+        service = new RateLimitService(properties, new SimpleMeterRegistry(), now::get);
+    }
+
+    @Test
+    void bucketRefillsAtTheConfiguredRate() {
+        service.admit(request("10.0.0.1", null));
+        service.admit(request("10.0.0.1", null));
+        assertThatThrownBy(() -> service.admit(request("10.0.0.1", null)))
+                .isInstanceOfSatisfying(RateLimitedException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(1)));
+
+        advance(Duration.ofMillis(500));
+        assertThatThrownBy(() -> service.admit(request("10.0.0.1", null)))
+                .isInstanceOfSatisfying(RateLimitedException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofMillis(500)));
+
+        advance(Duration.ofMillis(500));
+        service.admit(request("10.0.0.1", null));
+    }
+
+    @Test
+    void bucketRefillStopsAtTheBurst() {
+        advance(Duration.ofMinutes(10));
+        service.admit(request("10.0.0.1", null));
+        service.admit(request("10.0.0.1", null));
+        assertThatThrownBy(() -> service.admit(request("10.0.0.1", null)))
+                .isInstanceOf(RateLimitedException.class);
+    }
+
+    @Test
+    void unknownApiKeysAreLimitedByAddress() {
+        assertThat(service.admit(request("10.0.0.1", "made-up-1")).id()).isEqualTo("ip:10.0.0.1");
+        service.admit(request("10.0.0.1", "made-up-2"));
+        assertThatThrownBy(() -> service.admit(request("10.0.0.1", "made-up-3")))
+                .isInstanceOf(RateLimitedException.class);
+
+        assertThat(service.admit(request("10.0.0.1", "known-key")).id()).startsWith("key:");
+    }
+
+    @Test
+    void keysWithACallerLimitAreKnown() {
+        String id = service.admit(request("10.0.0.1", "known-key")).id();
+        properties.setApiKeys(Set.of());
+        service = new RateLimitService(properties, new SimpleMeterRegistry(), now::get);
+        assertThat(service.admit(request("10.0.0.1", "known-key")).id()).isEqualTo("ip:10.0.0.1");
+
+        service.setCallerLimit(id, properties.getDefaultLimit());
+        assertThat(service.admit(request("10.0.0.1", "known-key")).id()).isEqualTo(id);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static MockHttpServletRequest request(String address, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/generate");
+        request.setRemoteAddr(address);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,121 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.UpstreamProperties;
+import com.forgeai.backend.exception.UpstreamBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamCircuitBreakerTest {
+
+    private final UpstreamProperties properties = new UpstreamProperties();
+    private VirtualTimeScheduler scheduler;
+    private UpstreamCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        properties.getCircuit().setWindow(4);
+        properties.getCircuit().setMinCalls(4);
+        properties.getCircuit().setFailureRate(0.5);
+        properties.getCircuit().setOpenDuration(Duration.ofSeconds(30));
+        properties.getCircuit().setHalfOpenCalls(2);
+        scheduler = VirtualTimeScheduler.getOrSet();
+        breaker = new UpstreamCircuitBreaker(properties, new SimpleMeterRegistry(),
+                () -> scheduler.now(TimeUnit.NANOSECONDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        VirtualTimeScheduler.reset();
+    }
+
+    @Test
+    void opensOnceEnoughOfTheWindowFailed() {
+        succeed();
+        fail(503);
+        succeed();
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.CLOSED);
+
+        fail(429);
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.OPEN);
+        StepVerifier.create(breaker.protect(Flux.just("ok")))
+                .expectError(UpstreamBusyException.class)
+                .verify();
+    }
+
+    @Test
+    void requestErrorsDoNotCountAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            fail(400);
+        }
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpensAfterTheCoolDownAndClosesOnceTrialsSucceed() {
+        open();
+        scheduler.advanceTimeBy(Duration.ofSeconds(29));
+        StepVerifier.create(breaker.protect(Flux.just("ok")))
+                .expectError(UpstreamBusyException.class)
+                .verify();
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        succeed();
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.HALF_OPEN);
+        succeed();
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialOpensTheCircuitAgain() {
+        open();
+        scheduler.advanceTimeBy(Duration.ofSeconds(30));
+
+        fail(502);
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void onlyTheConfiguredNumberOfTrialsIsLetThrough() {
+        open();
+        scheduler.advanceTimeBy(Duration.ofSeconds(30));
+
+        StepVerifier.create(Flux.merge(
+                        breaker.protect(Flux.just("a").delayElements(Duration.ofSeconds(1))),
+                        breaker.protect(Flux.just("b").delayElements(Duration.ofSeconds(1))),
+                        breaker.protect(Flux.just("c").delayElements(Duration.ofSeconds(1)))))
+                .expectError(UpstreamBusyException.class)
+                .verify();
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            fail(503);
+        }
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        StepVerifier.create(breaker.protect(Flux.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    private void fail(int status) {
+        StepVerifier.create(breaker.protect(Flux.<String>error(
+                        WebClientResponseException.create(status, "", HttpHeaders.EMPTY, new byte[0], null))))
+                .expectError(WebClientResponseException.class)
+                .verify();
+    }
+}
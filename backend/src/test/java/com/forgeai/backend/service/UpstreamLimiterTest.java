@@ -0,0 +1,71 @@
+package com.forgeai.backend.service;
+
+import com.forgeai.backend.config.UpstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class UpstreamLimiterTest {
+
+    private final UpstreamProperties properties = new UpstreamProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxConcurrent(1);
+        properties.getAdaptive().setEnabled(false);
+    }
+
+    @Test
+    void queuedCallersShareSlotsInTurn() {
+        Caller heavy = new Caller("heavy", 1, 0);
+        Caller light = new Caller("light", 1, 0);
+
+        StepVerifier.withVirtualTime(() -> {
+                    UpstreamLimiter limiter = new UpstreamLimiter(properties, new SimpleMeterRegistry());
+                    List<Flux<String>> calls = new ArrayList<>();
+                    calls.add(call(limiter, heavy, "hold"));
+                    for (int i = 0; i < 5; i++) {
+                        calls.add(call(limiter, heavy, "heavy"));
+                    }
+                    for (int i = 0; i < 2; i++) {
+                        calls.add(call(limiter, light, "light"));
+                    }
+                    return Flux.merge(calls).collectList();
+                })
+                .thenAwait(Duration.ofSeconds(10))
+                .expectNext(List.of("hold", "heavy", "light", "heavy", "light", "heavy", "heavy", "heavy"))
+                .verifyComplete();
+    }
+
+    @Test
+    void slotsFollowTheCallersWeights() {
+        Caller standard = new Caller("standard", 1, 0);
+        Caller premium = new Caller("premium", 2, 0);
+
+        StepVerifier.withVirtualTime(() -> {
+                    UpstreamLimiter limiter = new UpstreamLimiter(properties, new SimpleMeterRegistry());
+                    List<Flux<String>> calls = new ArrayList<>();
+                    calls.add(call(limiter, standard, "hold"));
+                    for (int i = 0; i < 3; i++) {
+                        calls.add(call(limiter, standard, "standard"));
+                        calls.add(call(limiter, premium, "premium"));
+                    }
+                    return Flux.merge(calls).collectList();
+                })
+                .thenAwait(Duration.ofSeconds(10))
+                .expectNext(List.of("hold", "standard", "premium", "premium", "standard", "premium", "standard"))
+                .verifyComplete();
+    }
+
+    private static Flux<String> call(UpstreamLimiter limiter, Caller caller, String value) {
+        return limiter.limit(() -> Mono.delay(Duration.ofSeconds(1)).thenReturn(value))
+                .contextWrite(caller::attach);
+    }
+}
@@ -0,0 +1,163 @@
+package com.forgeai.backend.storage;
+
+import com.forgeai.backend.config.StorageProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentStoreTest {
+
+    @TempDir
+    Path baseFolder;
+
+    @Test
+    void rebuildsIndexAndDropsTornTailOnReopen() throws Exception {
+        SegmentStore store = open();
+        String hash = store.put("body".getBytes(StandardCharsets.UTF_8));
+        store.write("project", "ref-1".getBytes(StandardCharsets.UTF_8));
+        store.write("project", "ref-2".getBytes(StandardCharsets.UTF_8));
+        store.close();
+
+        try (Stream<Path> segments = Files.list(baseFolder.resolve("segments"))) {
+            Path last = segments.sorted().reduce((a, b) -> b).orElseThrow();
+            Files.write(last, new byte[] {0x46, 0x47, 0x53, 0x31, 1, 0}, StandardOpenOption.APPEND);
+        }
+
+        SegmentStore reopened = open();
+        assertThat(reopened.get(hash)).contains("body".getBytes(StandardCharsets.UTF_8));
+        assertThat(reopened.read("project")).contains("ref-2".getBytes(StandardCharsets.UTF_8));
+        assertThat(reopened.put("body".getBytes(StandardCharsets.UTF_8))).isEqualTo(hash);
+        reopened.close();
+    }
+
+    @Test
+    void compactionKeepsLiveRecordsReadableAndDurable() throws Exception {
+        SegmentStore store = open();
+        String hash = store.put("x".repeat(200).getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 50; i++) {
+            store.write("project", ("ref-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        List<Path> before = segmentFiles();
+
+        store.compact();
+
+        List<Path> compacted = before.stream().filter(path -> !Files.exists(path)).toList();
+        assertThat(compacted).isNotEmpty();
+        assertThat(store.get(hash)).contains("x".repeat(200).getBytes(StandardCharsets.UTF_8));
+        assertThat(store.read("project")).contains("ref-49".getBytes(StandardCharsets.UTF_8));
+        store.close();
+
+        SegmentStore reopened = open();
+        assertThat(segmentFiles()).doesNotContainAnyElementsOf(compacted);
+        assertThat(reopened.get(hash)).contains("x".repeat(200).getBytes(StandardCharsets.UTF_8));
+        assertThat(reopened.read("project")).contains("ref-49".getBytes(StandardCharsets.UTF_8));
+        reopened.close();
+    }
+
+    @Test
+    void deletedRefStaysDeletedAfterReopen() {
+        SegmentStore store = open();
+        store.write("kept", "ref".getBytes(StandardCharsets.UTF_8));
+        store.write("deleted", "ref".getBytes(StandardCharsets.UTF_8));
+        store.delete("deleted");
+        store.close();
+
+        SegmentStore reopened = open();
+        assertThat(reopened.read("deleted")).isEmpty();
+        assertThat(reopened.projectIds()).containsExactly("kept");
+        reopened.close();
+    }
+
+    @Test
+    void compactionDropsDeleteMarkerOnceNoOlderRecordRemains() throws Exception {
+        SegmentStore store = open();
+        store.write("deleted", "ref".getBytes(StandardCharsets.UTF_8));
+        store.delete("deleted");
+        for (int i = 0; i < 50; i++) {
+            store.write("kept", ("ref-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        store.compact();
+        store.close();
+
+        for (Path segment : segmentFiles()) {
+            assertThat(new String(Files.readAllBytes(segment), StandardCharsets.UTF_8)).doesNotContain("deleted");
+        }
+        SegmentStore reopened = open();
+        assertThat(reopened.read("deleted")).isEmpty();
+        assertThat(reopened.projectIds()).containsExactly("kept");
+        reopened.close();
+    }
+
+    @Test
+    void damagedRecordInASealedSegmentOnlyLosesThatRecord() throws Exception {
+        SegmentStore store = open();
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            hashes.add(store.put(blob(i)));
+        }
+        store.write("project", "ref".getBytes(StandardCharsets.UTF_8));
+        store.close();
+
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSizeGreaterThan(2);
+        Path first = files.get(0);
+        byte[] content = Files.readAllBytes(first);
+        int damaged = new String(content, StandardCharsets.ISO_8859_1).indexOf("blob-1-");
+        assertThat(damaged).isPositive();
+        content[damaged + 10] ^= 0x7f;
+        Files.write(first, content);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SegmentStore reopened = open(registry);
+        assertThat(Files.size(first)).isEqualTo(content.length);
+        assertThat(reopened.get(hashes.get(1))).isEmpty();
+        for (int i = 0; i < hashes.size(); i++) {
+            if (i != 1) {
+                assertThat(reopened.get(hashes.get(i))).contains(blob(i));
+            }
+        }
+        assertThat(reopened.read("project")).contains("ref".getBytes(StandardCharsets.UTF_8));
+        assertThat(registry.get("forgeai.storage.segments.damaged.bytes").counter().count()).isPositive();
+
+        // Kept for recovery even once nothing in it is live
+        reopened.remove(hashes.get(0));
+        reopened.remove(hashes.get(2));
+        reopened.compact();
+        assertThat(first).exists();
+        reopened.close();
+    }
+
+    private static byte[] blob(int i) {
+        return ("blob-" + i + "-" + "x".repeat(80)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> segments = Files.list(baseFolder.resolve("segments"))) {
+            return segments.sorted().toList();
+        }
+    }
+
+    private SegmentStore open() {
+        return open(new SimpleMeterRegistry());
+    }
+
+    private SegmentStore open(SimpleMeterRegistry registry) {
+        StorageProperties properties = new StorageProperties();
+        properties.setBaseFolder(baseFolder);
+        properties.getSegments().setMaxSize(DataSize.ofBytes(512));
+        return new SegmentStore(properties, registry);
+    }
+}
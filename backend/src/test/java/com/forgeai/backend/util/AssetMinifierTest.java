@@ -0,0 +1,81 @@
+package com.forgeai.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssetMinifierTest {
+
+    @Test
+    void minifiesCssAndDropsEarlierDuplicateRules() {
+        String css = """
+                /* Hero */
+                .hero {
+                    color: red;
+                    content: "a  b";
+                }
+                .card > .title , .card :hover { margin: 0 auto; }
+                @media (max-width: 600px) {
+                    .hero { width: calc(100% - 2rem); }
+                }
+                .hero {
+                    color: red;
+                    content: "a  b";
+                }
+                """;
+
+        assertThat(AssetMinifier.css(css)).isEqualTo(".card>.title,.card :hover{margin:0 auto}"
+                + "@media (max-width:600px){.hero{width:calc(100% - 2rem)}}"
+                + ".hero{color:red;content:\"a  b\"}");
+    }
+
+    @Test
+    void minifiesJsWithoutTouchingStringsRegexesOrTemplates() {
+        String js = """
+                // Reveal sections
+                const pattern = /\\/\\/ not a comment/g;
+                const label = `Hi  ${ user.name + ` (${ count })` }  !`;
+                let total = a + +b; /* sum */
+                if (total > 1) {
+                    console.log("a  // b");
+                }
+                """;
+
+        assertThat(AssetMinifier.js(js)).isEqualTo("""
+                const pattern=/\\/\\/ not a comment/g;
+                const label=`Hi  ${user.name+` (${count})`}  !`;
+                let total=a+ +b;
+                if(total>1){
+                console.log("a  // b");
+                }""");
+    }
+
+    @Test
+    void minifiesHtmlAndEmbeddedAssets() {
+        String html = """
+                <!DOCTYPE html>
+                <html>
+                  <!-- header -->
+                  <head>
+                    <style>
+                      body { margin: 0; }
+                    </style>
+                  </head>
+                  <body class="page   dark" >
+                    <pre>  keep
+                      this  </pre>
+                    <p>Hello,
+                       world</p>
+                    <script>
+                      // greet
+                      console.log( 'hi' );
+                    </script>
+                  </body>
+                </html>
+                """;
+
+        assertThat(AssetMinifier.html(html)).isEqualTo("<!DOCTYPE html> <html> <head> <style>body{margin:0}</style>"
+                + " </head> <body class=\"page   dark\"> <pre>  keep\n      this  </pre> <p>Hello, world</p>"
+                + " <script>console.log('hi');</script> </body> </html>");
+    }
+}
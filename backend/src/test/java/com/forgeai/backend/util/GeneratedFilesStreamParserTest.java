@@ -0,0 +1,65 @@
+package com.forgeai.backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.forgeai.backend.dto.GenerateResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeneratedFilesStreamParserTest {
+
+    private static final String JSON = "{\"files\": ["
+            + "{\"path\": \"index.html\", \"content\": \"<h1>Hi \\\"there\\\" 🚀</h1>\"},"
+            + "{\"path\": \"styles.css\", \"content\": \"h1 { color: red; }\"},"
+            + "{\"path\": \"script.js\", \"content\": \"console.log('{ok}');\"}"
+            + "]}";
+
+    @Test
+    void emitsEachFileAsSoonAsItCloses() {
+        GeneratedFilesStreamParser parser = new GeneratedFilesStreamParser(new JsonFactory());
+        int firstFileEnd = JSON.indexOf("},") + 1;
+
+        assertThat(parser.feed(JSON.substring(0, firstFileEnd - 1))).isEmpty();
+        assertThat(parser.feed(JSON.substring(firstFileEnd - 1, firstFileEnd)))
+                .extracting(GenerateResponse.GeneratedFile::getPath)
+                .containsExactly("index.html");
+        assertThat(parser.feed(JSON.substring(firstFileEnd)))
+                .extracting(GenerateResponse.GeneratedFile::getPath)
+                .containsExactly("styles.css", "script.js");
+        parser.finish();
+    }
+
+    @Test
+    void skipsFencesAndProseAroundTheJson() {
+        String raw = "Sure! Here is {your} site:\n```json\n" + JSON + "\n```\nLet me know {if} you need more.";
+
+        List<GenerateResponse.GeneratedFile> files = feedOneCharAtATime(raw);
+
+        assertThat(files).extracting(GenerateResponse.GeneratedFile::getPath)
+                .containsExactly("index.html", "styles.css", "script.js");
+        assertThat(files.get(0).getContent()).isEqualTo("<h1>Hi \"there\" 🚀</h1>");
+        assertThat(files.get(2).getContent()).isEqualTo("console.log('{ok}');");
+    }
+
+    @Test
+    void rejectsTruncatedCompletion() {
+        GeneratedFilesStreamParser parser = new GeneratedFilesStreamParser(new JsonFactory());
+        parser.feed(JSON.substring(0, JSON.length() / 2));
+
+        assertThatThrownBy(parser::finish).hasMessageContaining("Incomplete JSON");
+    }
+
+    private List<GenerateResponse.GeneratedFile> feedOneCharAtATime(String raw) {
+        GeneratedFilesStreamParser parser = new GeneratedFilesStreamParser(new JsonFactory());
+        List<GenerateResponse.GeneratedFile> files = new ArrayList<>();
+        for (int i = 0; i < raw.length(); i++) {
+            files.addAll(parser.feed(raw.substring(i, i + 1)));
+        }
+        parser.finish();
+        return files;
+    }
+}
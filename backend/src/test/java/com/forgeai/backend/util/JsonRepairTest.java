@@ -0,0 +1,63 @@
+package com.forgeai.backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forgeai.backend.dto.GenerateResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonRepairTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void escapesQuotesThatDoNotEndTheString() throws Exception {
+        String broken = "{\"files\": [{\"path\": \"index.html\", \"content\": \"<div class=\"hero\">Hi, \"you\"</div>\"}]}";
+
+        String repaired = JsonRepair.repair(broken);
+
+        assertThat(objectMapper.readTree(repaired).at("/files/0/content").asText())
+                .isEqualTo("<div class=\"hero\">Hi, \"you\"</div>");
+    }
+
+    @Test
+    void fixesTrailingCommasControlCharactersAndBadEscapes() throws Exception {
+        String broken = "```json\n{\"files\": [{\"path\": \"a.js\", \"content\": \"line1\nline2\\d\",},]}\n```\nDone!";
+
+        String repaired = JsonRepair.repair(broken);
+
+        assertThat(objectMapper.readTree(repaired).at("/files/0/content").asText()).isEqualTo("line1\nline2\\d");
+    }
+
+    @Test
+    void keepsTheBackslashOfRegexEscapesInScripts() {
+        String broken = "{\"files\": [{\"path\": \"script.js\", \"content\": \"const digits = /\\d+/;\"}]}";
+        JsonFactory lenient = JsonFactory.builder()
+                .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+                .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+                .build();
+
+        assertThatThrownBy(() -> new GeneratedFilesStreamParser(lenient).feed(broken))
+                .hasMessageContaining("Unrecognized character escape");
+        List<GenerateResponse.GeneratedFile> files =
+                new GeneratedFilesStreamParser(lenient).feed(JsonRepair.repair(broken));
+
+        assertThat(files.get(0).getContent()).isEqualTo("const digits = /\\d+/;");
+    }
+
+    @Test
+    void leavesTruncatedJsonUnterminated() {
+        String truncated = "{\"files\": [{\"path\": \"index.html\", \"content\": \"<h1>Hi</h1>\"}, {\"path\": \"sty";
+
+        GeneratedFilesStreamParser parser = new GeneratedFilesStreamParser(new JsonFactory());
+        List<GenerateResponse.GeneratedFile> files = parser.feed(JsonRepair.repair(truncated));
+
+        assertThat(files).extracting(GenerateResponse.GeneratedFile::getPath).containsExactly("index.html");
+        assertThat(parser.isFinished()).isFalse();
+    }
+}
@@ -0,0 +1,48 @@
+package com.forgeai.backend.util;
+
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.ai.ProjectPatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PatchApplierTest {
+
+    private static final List<GenerateResponse.GeneratedFile> FILES = List.of(
+            new GenerateResponse.GeneratedFile("index.html", "<h1>Hello</h1><p>Hello again</p>"),
+            new GenerateResponse.GeneratedFile("styles.css", "h1 { color: red; }"),
+            new GenerateResponse.GeneratedFile("script.js", "console.log('hi');"));
+
+    @Test
+    void appliesEditsAndKeepsUntouchedFiles() {
+        ProjectPatch patch = new ProjectPatch(List.of(
+                new ProjectPatch.FilePatch("index.html", List.of(
+                        new ProjectPatch.Edit("<h1>Hello</h1>", "<h1>Welcome</h1>"),
+                        new ProjectPatch.Edit("again", "once more"))),
+                new ProjectPatch.FilePatch("styles.css", List.of(
+                        new ProjectPatch.Edit("red", "blue")))));
+
+        List<GenerateResponse.GeneratedFile> patched = PatchApplier.apply(FILES, patch);
+
+        assertThat(patched).extracting(GenerateResponse.GeneratedFile::getContent).containsExactly(
+                "<h1>Welcome</h1><p>Hello once more</p>",
+                "h1 { color: blue; }",
+                "console.log('hi');");
+    }
+
+    @Test
+    void rejectsMissingOrAmbiguousSearchText() {
+        assertThatThrownBy(() -> PatchApplier.apply(FILES, new ProjectPatch(List.of(
+                new ProjectPatch.FilePatch("styles.css", List.of(new ProjectPatch.Edit("green", "blue")))))))
+                .hasMessageContaining("not found");
+        assertThatThrownBy(() -> PatchApplier.apply(FILES, new ProjectPatch(List.of(
+                new ProjectPatch.FilePatch("index.html", List.of(new ProjectPatch.Edit("Hello", "Hi")))))))
+                .hasMessageContaining("not unique");
+        assertThatThrownBy(() -> PatchApplier.apply(FILES, new ProjectPatch(List.of(
+                new ProjectPatch.FilePatch("about.html", List.of(new ProjectPatch.Edit("a", "b")))))))
+                .hasMessageContaining("unknown file");
+    }
+}
@@ -0,0 +1,20 @@
+package com.forgeai.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreferHeaderTest {
+
+    @Test
+    void findsRespondAsyncAmongOtherPreferences() {
+        assertThat(PreferHeader.respondAsync(List.of("respond-async"))).isTrue();
+        assertThat(PreferHeader.respondAsync(List.of("respond-async, wait=10"))).isTrue();
+        assertThat(PreferHeader.respondAsync(List.of("wait=10", "Respond-Async; foo=bar"))).isTrue();
+        assertThat(PreferHeader.respondAsync(List.of("return=minimal", "wait=10"))).isFalse();
+        assertThat(PreferHeader.respondAsync(List.of("respond-asynchronously"))).isFalse();
+        assertThat(PreferHeader.respondAsync(null)).isFalse();
+    }
+}
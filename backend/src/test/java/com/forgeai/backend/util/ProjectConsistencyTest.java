@@ -0,0 +1,65 @@
+package com.forgeai.backend.util;
+
+import com.forgeai.backend.dto.GenerateResponse;
+import com.forgeai.backend.dto.ai.DesignSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectConsistencyTest {
+
+    private static final DesignSpec SPEC = new DesignSpec(
+            List.of(new DesignSpec.Section("hero", "Headline and CTA"), new DesignSpec.Section("about", "Story")),
+            List.of("card", "visible"),
+            Map.of("primary", "#4f46e5"),
+            "Inter, sans-serif");
+
+    @Test
+    void acceptsFilesThatFollowTheSpec() {
+        List<GenerateResponse.GeneratedFile> files = List.of(
+                new GenerateResponse.GeneratedFile("index.html", "<link rel=\"stylesheet\" href=\"styles.css\">"
+                        + "<section id=\"hero\" class=\"card\"></section><section id='about'></section>"
+                        + "<script src=\"./script.js\"></script>"),
+                new GenerateResponse.GeneratedFile("styles.css", ".card { color: red; } .card.visible { opacity: 1; }"),
+                new GenerateResponse.GeneratedFile("script.js", "document.getElementById('hero');"
+                        + "document.querySelectorAll('.card');"));
+
+        assertThat(ProjectConsistency.problems(files, SPEC)).isEmpty();
+    }
+
+    @Test
+    void acceptsLookupsOfElementsTheScriptCreates() {
+        List<GenerateResponse.GeneratedFile> files = List.of(
+                new GenerateResponse.GeneratedFile("index.html", "<link rel=\"stylesheet\" href=\"styles.css\">"
+                        + "<section id=\"hero\" class=\"card\"></section><section id=\"about\"></section>"
+                        + "<script src=\"script.js\"></script>"),
+                new GenerateResponse.GeneratedFile("styles.css", ".card { color: red; } .visible { opacity: 1; }"),
+                new GenerateResponse.GeneratedFile("script.js", "const toast = document.createElement('div');\n"
+                        + "toast.id = 'toast';\ndocument.body.appendChild(toast);\n"
+                        + "const modal = document.createElement('div');\nmodal.setAttribute('id', \"modal\");\n"
+                        + "document.body.insertAdjacentHTML('beforeend', `<nav id=\"menu\"></nav>`);\n"
+                        + "document.getElementById('toast').textContent = 'Hi';\n"
+                        + "document.querySelector('#modal');\ndocument.getElementById('menu');"));
+
+        assertThat(ProjectConsistency.problems(files, SPEC)).isEmpty();
+    }
+
+    @Test
+    void reportsEachMismatch() {
+        List<GenerateResponse.GeneratedFile> files = List.of(
+                new GenerateResponse.GeneratedFile("index.html", "<section id=\"hero\" class=\"card\"></section>"),
+                new GenerateResponse.GeneratedFile("styles.css", ".card-title { color: red; }"),
+                new GenerateResponse.GeneratedFile("script.js", "document.querySelector(\"#contact\");"));
+
+        assertThat(ProjectConsistency.problems(files, SPEC)).containsExactly(
+                "index.html does not link styles.css",
+                "index.html does not load script.js",
+                "section #about is missing from index.html",
+                "class .card is not styled in styles.css",
+                "class .visible is not styled in styles.css",
+                "script.js looks up #contact which is not in index.html");
+    }
+}
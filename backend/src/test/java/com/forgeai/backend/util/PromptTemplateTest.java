@@ -0,0 +1,28 @@
+package com.forgeai.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PromptTemplateTest {
+
+    @Test
+    void rendersPlaceholdersWithoutReinterpretingValues() {
+        PromptTemplate template = PromptTemplate.compile("Name: {{name}}\nSections: {{ sections }}!");
+
+        assertThat(template.render(Map.of("name", "100% {{fun}}", "sections", "hero, about")))
+                .isEqualTo("Name: 100% {{fun}}\nSections: hero, about!");
+    }
+
+    @Test
+    void rejectsMissingValues() {
+        PromptTemplate template = PromptTemplate.compile("{{a}} and {{b}}");
+
+        assertThatThrownBy(() -> template.render(Map.of("a", "x")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("b");
+    }
+}